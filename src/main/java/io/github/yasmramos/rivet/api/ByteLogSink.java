@@ -0,0 +1,96 @@
+package io.github.yasmramos.rivet.logging.api;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Log sink that receives entries already encoded as UTF-8 bytes.
+ * 
+ * The pipeline encodes each entry once and hands the same read-only buffer to every
+ * byte sink, so file and socket sinks do not have to re-encode a String each.
+ * The buffer is only valid for the duration of the call: sinks that keep the bytes
+ * must copy them. The buffer does not include a line separator.
+ */
+public interface ByteLogSink extends LogSink {
+    
+    /**
+     * Writes an encoded log entry to this sink.
+     * 
+     * @param utf8Entry Read-only UTF-8 bytes of the formatted entry, from position to limit
+     * @param level The level of the entry, or null if unknown
+     */
+    void write(ByteBuffer utf8Entry, LogLevel level);
+    
+    /**
+     * Encodes the entry and writes it through {@link #write(ByteBuffer, LogLevel)}.
+     */
+    @Override
+    default void write(String logEntry) {
+        write(logEntry, null);
+    }
+    
+    @Override
+    default void write(String logEntry, LogLevel level) {
+        write(ByteBuffer.wrap(logEntry.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(), level);
+    }
+    
+    /**
+     * Adapts a String-based sink to the byte contract by decoding each entry.
+     * Returns the sink itself if it already is a byte sink.
+     * 
+     * @throws IllegalArgumentException if the sink is an {@link EntryLogSink}, which cannot
+     *         be fed from encoded text
+     */
+    static ByteLogSink adapt(LogSink sink) {
+        if (sink instanceof ByteLogSink) {
+            return (ByteLogSink) sink;
+        }
+        if (sink instanceof EntryLogSink) {
+            throw new IllegalArgumentException("Sink " + sink.getName() + " only accepts structured entries");
+        }
+        return new StringSinkAdapter(sink);
+    }
+    
+    /**
+     * Byte sink that decodes entries and forwards them to a String-based sink.
+     */
+    final class StringSinkAdapter implements ByteLogSink {
+        
+        private final LogSink delegate;
+        
+        StringSinkAdapter(LogSink delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(ByteBuffer utf8Entry, LogLevel level) {
+            delegate.write(StandardCharsets.UTF_8.decode(utf8Entry).toString(), level);
+        }
+        
+        @Override
+        public void write(String logEntry, LogLevel level) {
+            delegate.write(logEntry, level);
+        }
+        
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() {
+            delegate.close();
+        }
+        
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+        
+        public LogSink getDelegate() {
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.yasmramos.rivet.logging.api;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+
+import java.time.Instant;
+
+/**
+ * Log sink that receives the structured entry and does its own encoding,
+ * e.g. into the binary format of {@link io.github.yasmramos.rivet.logging.util.BinaryFormatter}.
+ * 
+ * Entries are not formatted as JSON for these sinks; when every configured sink is an
+ * entry sink, no JSON is produced at all.
+ * {@link io.github.yasmramos.rivet.logging.config.RivetConfiguration#addQueuedSink} queues
+ * them with a {@link io.github.yasmramos.rivet.logging.async.QueuedEntrySink}, which
+ * queues the entries themselves, and {@link ByteLogSink#adapt} rejects them. A formatted
+ * line written through the plain {@link LogSink} methods is kept as the message of an entry.
+ */
+public interface EntryLogSink extends LogSink {
+    
+    /**
+     * Writes a log entry to this sink.
+     * Entries are immutable and may be handed to another thread, as queued sinks do.
+     */
+    void write(LogEntry entry);
+    
+    @Override
+    default void write(String logEntry) {
+        write(logEntry, null);
+    }
+    
+    /**
+     * Writes a formatted line as an entry whose message is the line, at INFO if no level is given.
+     */
+    @Override
+    default void write(String logEntry, LogLevel level) {
+        Thread thread = Thread.currentThread();
+        write(new LogEntry.Builder()
+            .timestamp(Instant.now())
+            .level(level != null ? level : LogLevel.INFO)
+            .loggerName(EntryLogSink.class.getName())
+            .message(logEntry)
+            .threadId(thread.getId())
+            .threadName(thread.getName())
+            .build());
+    }
+}
@@ -2,15 +2,22 @@ package io.github.yasmramos.rivet.logging.api;
 
 import io.github.yasmramos.rivet.logging.config.LogLevel;
 import io.github.yasmramos.rivet.logging.core.Rivet;
-import io.github.yasmramos.rivet.logging.util.ThreadContext;
+import io.github.yasmramos.rivet.logging.util.MutableArrayMap;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Fluent API builder for Rivet logging.
  * Implements the builder pattern for creating log entries with context, tags, and arguments.
  * 
+ * By default every call returns a new builder. In garbage-free mode
+ * (see {@link io.github.yasmramos.rivet.logging.config.RivetConfiguration#setGarbageFree(boolean)})
+ * the chain mutates a reusable thread-local builder instead, and {@link #log()} resets it
+ * for the next statement. A reusable builder must not be kept after {@code log()}.
+ * 
  * Example usage:
  * Rivet.info()
  *     .message("User {0} logged in")
@@ -21,150 +28,304 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class FluentLoggerBuilder {
     
-    private final LogLevel level;
+    private static final ThreadLocal<FluentLoggerBuilder> REUSABLE = new ThreadLocal<>();
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final int CACHED_ARG_ARRAYS = 8;
+    private static final StackWalker STACK_WALKER =
+        StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final Function<Stream<StackWalker.StackFrame>, Class<?>> FIRST_CALLER = frames -> frames
+        .map(StackWalker.StackFrame::getDeclaringClass)
+        .filter(type -> !FluentLoggerBuilder.class.isAssignableFrom(type))
+        .findFirst()
+        .orElse(FluentLoggerBuilder.class);
+    private static final ClassValue<RivetLogger> CALLER_LOGGERS = new ClassValue<>() {
+        @Override
+        protected RivetLogger computeValue(Class<?> type) {
+            return Rivet.forClass(type);
+        }
+    };
+    
+    private LogLevel level;
     private final Rivet rivet;
-    private final String message;
+    private String message;
+    private Supplier<String> messageSupplier;
     private final List<Object> args;
-    private final Map<String, Object> context;
-    private final Map<String, String> tags;
-    private final String loggerName;
-    private final RivetLogger logger;
+    private final MutableArrayMap<Object> context;
+    private final MutableArrayMap<String> tags;
+    private Throwable throwable;
+    private RivetLogger logger;
+    private final boolean reusable;
+    private final Object[][] argArrays;
+    private boolean inUse;
     
     public FluentLoggerBuilder(LogLevel level, Rivet rivet) {
         this(level, rivet, null, null);
     }
     
     public FluentLoggerBuilder(LogLevel level, Rivet rivet, String message, RivetLogger logger) {
+        this(level, rivet, message, logger, false);
+    }
+    
+    private FluentLoggerBuilder(LogLevel level, Rivet rivet, String message, RivetLogger logger, boolean reusable) {
         this.level = level;
         this.rivet = rivet;
         this.message = message;
         this.args = new ArrayList<>();
-        this.context = new HashMap<>();
-        this.tags = new HashMap<>();
-        this.loggerName = null;
+        this.context = new MutableArrayMap<>();
+        this.tags = new MutableArrayMap<>();
         this.logger = logger;
+        this.reusable = reusable;
+        this.argArrays = reusable ? new Object[CACHED_ARG_ARRAYS + 1][] : null;
+    }
+    
+    /**
+     * Gets the current thread's reusable builder, reset for a new statement at the given level.
+     * If that builder is still in use by an unfinished chain (for example a log statement
+     * evaluated while building another one's arguments), a fresh reusable builder takes its place.
+     */
+    public static FluentLoggerBuilder reusable(LogLevel level, Rivet rivet) {
+        FluentLoggerBuilder builder = REUSABLE.get();
+        if (builder == null || builder.inUse) {
+            builder = new FluentLoggerBuilder(level, rivet, null, null, true);
+            REUSABLE.set(builder);
+        }
+        builder.level = level;
+        builder.inUse = true;
+        return builder;
+    }
+    
+    /**
+     * Gets the shared builder used for disabled levels. All of its methods are no-ops.
+     */
+    public static FluentLoggerBuilder noOp() {
+        return NoOpLoggerBuilder.INSTANCE;
+    }
+    
+    /**
+     * Checks whether this statement will be logged at all.
+     * Returns false only for the shared no-op builder of a disabled level.
+     */
+    public boolean isEnabled() {
+        return true;
     }
     
     /**
      * Sets the logger name (optional, defaults to class name).
      */
     public FluentLoggerBuilder loggerName(String loggerName) {
-        RivetLogger newLogger = Rivet.getLogger(loggerName);
-        return new FluentLoggerBuilder(level, rivet, message, newLogger);
+        FluentLoggerBuilder target = target();
+        target.logger = Rivet.getLogger(loggerName);
+        return target;
     }
     
     /**
      * Sets the log message with placeholders.
-     * Use {0}, {1}, etc. for argument interpolation.
+     * Use {0}, {1}, etc. for argument interpolation, or {name} and {} to take arguments in order.
      */
     public FluentLoggerBuilder message(String message) {
-        return new FluentLoggerBuilder(level, rivet, message, logger);
+        FluentLoggerBuilder target = target();
+        target.message = message;
+        target.messageSupplier = null;
+        return target;
+    }
+    
+    /**
+     * Sets a lazily built log message.
+     * The supplier is only called if the entry is going to be written.
+     */
+    public FluentLoggerBuilder lazyMessage(Supplier<String> messageSupplier) {
+        FluentLoggerBuilder target = target();
+        target.message = null;
+        target.messageSupplier = messageSupplier;
+        return target;
     }
     
     /**
      * Adds an argument for message interpolation.
      */
     public FluentLoggerBuilder arg(Object arg) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.args.add(arg);
-        newBuilder.context.putAll(this.context);
-        newBuilder.tags.putAll(this.tags);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        target.args.add(arg);
+        return target;
+    }
+    
+    /**
+     * Adds a lazily evaluated argument for message interpolation.
+     * The supplier is only called if the entry is going to be written.
+     */
+    public FluentLoggerBuilder arg(Supplier<?> arg) {
+        FluentLoggerBuilder target = target();
+        target.args.add(LazyValue.of(arg));
+        return target;
     }
     
     /**
      * Adds multiple arguments for message interpolation.
      */
     public FluentLoggerBuilder args(Object... args) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.args.addAll(Arrays.asList(args));
-        newBuilder.context.putAll(this.context);
-        newBuilder.tags.putAll(this.tags);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        for (Object arg : args) {
+            target.args.add(arg);
+        }
+        return target;
     }
     
     /**
      * Adds a context key-value pair.
      */
     public FluentLoggerBuilder context(String key, Object value) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.context.putAll(this.context);
-        newBuilder.context.put(key, value);
-        newBuilder.tags.putAll(this.tags);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        if (key != null) {
+            target.context.put(key, value);
+        }
+        return target;
+    }
+    
+    /**
+     * Adds a lazily evaluated context value.
+     * The supplier is only called if the entry is going to be written.
+     */
+    public FluentLoggerBuilder context(String key, Supplier<?> value) {
+        FluentLoggerBuilder target = target();
+        if (key != null) {
+            target.context.put(key, LazyValue.of(value));
+        }
+        return target;
     }
     
     /**
      * Adds multiple context key-value pairs.
      */
     public FluentLoggerBuilder context(Map<String, Object> context) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.context.putAll(this.context);
-        newBuilder.context.putAll(context);
-        newBuilder.tags.putAll(this.tags);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (entry.getKey() != null) {
+                target.context.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return target;
     }
     
     /**
      * Adds a tag.
      */
     public FluentLoggerBuilder tag(String tag, String value) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.context.putAll(this.context);
-        newBuilder.tags.putAll(this.tags);
-        newBuilder.tags.put(tag, value);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        if (tag != null) {
+            target.tags.put(tag, value);
+        }
+        return target;
     }
     
     /**
      * Adds multiple tags.
      */
     public FluentLoggerBuilder tags(Map<String, String> tags) {
-        FluentLoggerBuilder newBuilder = new FluentLoggerBuilder(level, rivet, message, logger);
-        newBuilder.args.addAll(this.args);
-        newBuilder.context.putAll(this.context);
-        newBuilder.tags.putAll(this.tags);
-        newBuilder.tags.putAll(tags);
-        return newBuilder;
+        FluentLoggerBuilder target = target();
+        for (Map.Entry<String, String> entry : tags.entrySet()) {
+            if (entry.getKey() != null) {
+                target.tags.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return target;
+    }
+    
+    /**
+     * Attaches an exception, written with its stack trace, causes and suppressed exceptions.
+     */
+    public FluentLoggerBuilder exception(Throwable throwable) {
+        FluentLoggerBuilder target = target();
+        target.throwable = throwable;
+        return target;
     }
     
     /**
      * Executes the log operation and outputs the log entry.
+     * A reusable builder is reset afterwards.
      */
     public void log() {
-        if (message == null) {
+        if (message == null && messageSupplier == null) {
+            reset();
             throw new IllegalStateException("Message cannot be null. Use .message() before .log()");
         }
         
-        RivetLogger loggerToUse = logger != null ? logger : getDefaultLogger();
-        loggerToUse.log(level, message, context, tags, args.toArray(new Object[0]));
+        try {
+            RivetLogger loggerToUse = logger != null ? logger : getDefaultLogger();
+            if (messageSupplier != null) {
+                loggerToUse.logLazy(level, messageSupplier, context, tags, argsArray(), throwable);
+            } else {
+                loggerToUse.log(level, message, context, tags, argsArray(), throwable);
+            }
+        } finally {
+            reset();
+        }
+    }
+    
+    /**
+     * Returns the builder a chained call should modify: this one when reusable,
+     * otherwise a copy so that the receiver stays unchanged.
+     */
+    private FluentLoggerBuilder target() {
+        if (reusable) {
+            return this;
+        }
+        FluentLoggerBuilder copy = new FluentLoggerBuilder(level, rivet, message, logger);
+        copy.messageSupplier = messageSupplier;
+        copy.throwable = throwable;
+        copy.args.addAll(args);
+        copy.context.putAll(context);
+        copy.tags.putAll(tags);
+        return copy;
+    }
+    
+    private Object[] argsArray() {
+        int count = args.size();
+        if (count == 0) {
+            return NO_ARGS;
+        }
+        if (!reusable || count > CACHED_ARG_ARRAYS) {
+            return args.toArray();
+        }
+        // Loggers consume the array before log() returns, so one array per size can be reused
+        Object[] array = argArrays[count];
+        if (array == null) {
+            array = new Object[count];
+            argArrays[count] = array;
+        }
+        for (int i = 0; i < count; i++) {
+            array[i] = args.get(i);
+        }
+        return array;
+    }
+    
+    private void reset() {
+        if (!reusable) {
+            return;
+        }
+        for (Object[] array : argArrays) {
+            if (array != null) {
+                Arrays.fill(array, null);
+            }
+        }
+        message = null;
+        messageSupplier = null;
+        throwable = null;
+        logger = null;
+        args.clear();
+        context.clear();
+        tags.clear();
+        inUse = false;
     }
     
     private RivetLogger getLogger() {
         if (logger != null) {
             return logger;
         }
-        // Return a logger based on stack trace
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement element : stackTrace) {
-            if (!element.getClassName().equals(FluentLoggerBuilder.class.getName())) {
-                String className = element.getClassName();
-                try {
-                    return Rivet.forClass(Class.forName(className));
-                } catch (ClassNotFoundException e) {
-                    return Rivet.getLogger(className);
-                }
-            }
-        }
-        return Rivet.getLogger(FluentLoggerBuilder.class.getName());
+        // Resolve the logger from the first frame outside the builder, cached per caller class
+        return CALLER_LOGGERS.get(STACK_WALKER.walk(FIRST_CALLER));
     }
     
     private RivetLogger getDefaultLogger() {
         return getLogger();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package io.github.yasmramos.rivet.logging.api;
+
+import java.util.function.Supplier;
+
+/**
+ * Argument or context value that is only computed if the entry is written.
+ * 
+ * Values are wrapped when they come in through a Supplier overload, such as
+ * {@link FluentLoggerBuilder#arg(Supplier)}. Objects that merely happen to implement
+ * {@link Supplier} and are passed as plain values are logged as they are, never called.
+ */
+public final class LazyValue {
+    
+    private final Supplier<?> supplier;
+    
+    private LazyValue(Supplier<?> supplier) {
+        this.supplier = supplier;
+    }
+    
+    /**
+     * Wraps a supplier. Returns null for a null supplier, which is logged as a null value.
+     */
+    public static LazyValue of(Supplier<?> supplier) {
+        return supplier != null ? new LazyValue(supplier) : null;
+    }
+    
+    /**
+     * Calls the supplier. A failing supplier yields a placeholder string instead of
+     * breaking the log call.
+     */
+    public Object get() {
+        return resolve(supplier);
+    }
+    
+    static Object resolve(Supplier<?> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return "<supplier failed: " + e + ">";
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+}
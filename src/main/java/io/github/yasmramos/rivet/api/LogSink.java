@@ -1,8 +1,15 @@
 package io.github.yasmramos.rivet.logging.api;
 
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Interface for log output destinations.
  * Implementations write log entries to different targets (console, file, network, etc.).
+ * Sinks that write bytes should implement {@link ByteLogSink} to receive entries already encoded.
  */
 public interface LogSink {
     
@@ -13,6 +20,17 @@ public interface LogSink {
      */
     void write(String logEntry);
     
+    /**
+     * Writes a log entry to this sink, along with the level it was logged at.
+     * Sinks that make decisions based on the level (e.g. when dropping under load) override this.
+     * 
+     * @param logEntry The formatted log entry to write
+     * @param level The level of the entry
+     */
+    default void write(String logEntry, LogLevel level) {
+        write(logEntry);
+    }
+    
     /**
      * Flushes any buffered output.
      */
@@ -29,9 +47,13 @@ public interface LogSink {
     String getName();
     
     /**
-     * Console sink that writes to System.out/System.err.
+     * Console sink that writes UTF-8 encoded entries to System.out/System.err.
      */
-    class ConsoleSink implements LogSink {
+    class ConsoleSink implements ByteLogSink {
+        
+        private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        private static final int MAX_REUSABLE_BUFFER = 8192;
+        private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[1024]);
         
         private final String name;
         private final boolean useErrorStream;
@@ -50,12 +72,22 @@ public interface LogSink {
         }
         
         @Override
-        public void write(String logEntry) {
-            if (useErrorStream) {
-                System.err.println(logEntry);
-            } else {
-                System.out.println(logEntry);
+        public void write(ByteBuffer utf8Entry, LogLevel level) {
+            int length = utf8Entry.remaining();
+            int total = length + LINE_SEPARATOR.length;
+            byte[] bytes = SCRATCH.get();
+            if (total > MAX_REUSABLE_BUFFER) {
+                // Oversized entries get their own array, so the thread does not keep it
+                bytes = new byte[total];
+            } else if (bytes.length < total) {
+                bytes = new byte[Math.min(Math.max(total, bytes.length * 2), MAX_REUSABLE_BUFFER)];
+                SCRATCH.set(bytes);
             }
+            utf8Entry.get(bytes, 0, length);
+            System.arraycopy(LINE_SEPARATOR, 0, bytes, length, LINE_SEPARATOR.length);
+            // A single write keeps the entry and its line separator together
+            PrintStream stream = useErrorStream ? System.err : System.out;
+            stream.write(bytes, 0, total);
         }
         
         @Override
@@ -81,7 +113,7 @@ public interface LogSink {
     /**
      * Null sink that discards all log entries.
      */
-    class NullSink implements LogSink {
+    class NullSink implements ByteLogSink {
         
         private final String name;
         
@@ -98,6 +130,16 @@ public interface LogSink {
             // Discard all log entries
         }
         
+        @Override
+        public void write(String logEntry, LogLevel level) {
+            // Discard all log entries
+        }
+        
+        @Override
+        public void write(ByteBuffer utf8Entry, LogLevel level) {
+            // Discard all log entries
+        }
+        
         @Override
         public void flush() {
             // No-op
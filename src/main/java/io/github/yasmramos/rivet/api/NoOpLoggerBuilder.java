@@ -0,0 +1,90 @@
+package io.github.yasmramos.rivet.logging.api;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared builder returned for disabled levels.
+ * Every call returns the same instance and {@link #log()} does nothing,
+ * so a disabled fluent statement neither allocates nor collects its arguments.
+ */
+final class NoOpLoggerBuilder extends FluentLoggerBuilder {
+    
+    static final NoOpLoggerBuilder INSTANCE = new NoOpLoggerBuilder();
+    
+    private NoOpLoggerBuilder() {
+        super(LogLevel.TRACE, null);
+    }
+    
+    @Override
+    public FluentLoggerBuilder loggerName(String loggerName) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder message(String message) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder lazyMessage(Supplier<String> messageSupplier) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder arg(Object arg) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder arg(Supplier<?> arg) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder args(Object... args) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder context(String key, Object value) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder context(String key, Supplier<?> value) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder context(Map<String, Object> context) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder tag(String tag, String value) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder tags(Map<String, String> tags) {
+        return this;
+    }
+    
+    @Override
+    public FluentLoggerBuilder exception(Throwable throwable) {
+        return this;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+    
+    @Override
+    public void log() {
+        // Level disabled: nothing to do
+    }
+}
@@ -1,9 +1,11 @@
 package io.github.yasmramos.rivet.logging.api;
 
+import io.github.yasmramos.rivet.logging.async.AsyncDispatcher;
 import io.github.yasmramos.rivet.logging.config.LogLevel;
 import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
 import io.github.yasmramos.rivet.logging.core.LogEntry;
-import io.github.yasmramos.rivet.logging.util.JsonFormatter;
+import io.github.yasmramos.rivet.logging.core.LogWriter;
+import io.github.yasmramos.rivet.logging.util.MessageTemplate;
 import io.github.yasmramos.rivet.logging.util.TimestampProvider;
 import io.github.yasmramos.rivet.logging.util.ThreadContext;
 
@@ -11,26 +13,30 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Core logger implementation that handles JSON formatting and output.
  * Manages context, tags, and formatting for all log entries.
+ * 
+ * Loggers are cached and shared between threads, so context and tags always come from
+ * the {@link ThreadContext} of the thread that is logging, looked up at call time.
  */
 public class RivetLogger {
     
     private final String name;
     private final RivetConfiguration configuration;
-    private final JsonFormatter jsonFormatter;
+    private final LogWriter logWriter;
     private final TimestampProvider timestampProvider;
-    private final ThreadContext threadContext;
+    // Effective level as LogLevel.getLevel(), pushed by the configuration when levels change
+    private volatile int threshold;
     
     public RivetLogger(String name, RivetConfiguration configuration) {
         this.name = name;
         this.configuration = configuration;
-        this.jsonFormatter = new JsonFormatter(configuration);
+        this.logWriter = new LogWriter(configuration);
         this.timestampProvider = new TimestampProvider(configuration.getTimezone());
-        // Use the singleton thread context for proper context sharing
-        this.threadContext = ThreadContext.get();
+        configuration.registerLogger(this);
     }
     
     /**
@@ -38,56 +44,112 @@ public class RivetLogger {
      */
     public void log(LogLevel level, String message, Map<String, Object> context, 
                     Map<String, String> tags, Object[] args) {
+        log(level, message, context, tags, args, null);
+    }
+    
+    /**
+     * Logs a message with the specified level, context and exception.
+     */
+    public void log(LogLevel level, String message, Map<String, Object> context, 
+                    Map<String, String> tags, Object[] args, Throwable throwable) {
+        if (!isLevelEnabled(level)) {
+            return;
+        }
+        
+        LogEntry entry = createLogEntry(level, message, context, tags, args, throwable);
+        formatAndOutput(entry);
+    }
+    
+    /**
+     * Logs a lazily built message. The supplier, and any {@link LazyValue} among the
+     * arguments or context values, is only called if the entry will be written.
+     */
+    public void logLazy(LogLevel level, Supplier<String> messageSupplier, Map<String, Object> context,
+                        Map<String, String> tags, Object[] args) {
+        logLazy(level, messageSupplier, context, tags, args, null);
+    }
+    
+    /**
+     * Logs a lazily built message with an exception.
+     */
+    public void logLazy(LogLevel level, Supplier<String> messageSupplier, Map<String, Object> context,
+                    Map<String, String> tags, Object[] args, Throwable throwable) {
         if (!isLevelEnabled(level)) {
             return;
         }
         
-        LogEntry entry = createLogEntry(level, message, context, tags, args);
+        LogEntry entry = createLogEntry(level, Objects.toString(LazyValue.resolve(messageSupplier), null), 
+                                        context, tags, args, throwable);
         formatAndOutput(entry);
     }
     
     /**
-     * Logs a message with automatic context from ThreadContext.
+     * Logs a message with automatic context from the current thread's ThreadContext.
      */
     public void log(LogLevel level, String message, Object[] args) {
-        Map<String, Object> context = threadContext.getAll();
-        Map<String, String> tags = threadContext.getTags();
-        log(level, message, context, tags, args);
+        log(level, message, args, null);
+    }
+    
+    /**
+     * Logs a message and an exception with automatic context from the current thread's ThreadContext.
+     */
+    public void log(LogLevel level, String message, Object[] args, Throwable throwable) {
+        if (!isLevelEnabled(level)) {
+            return;
+        }
+        // One thread-local lookup; both maps are immutable
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        log(level, message, snapshot.getContext(), snapshot.getTags(), args, throwable);
     }
     
     /**
      * Checks if the specified log level is enabled.
      */
     public boolean isLevelEnabled(LogLevel level) {
-        return level.ordinal() >= configuration.getMinLevel().ordinal();
+        return level.getLevel() >= threshold;
+    }
+    
+    /**
+     * Gets the level that applies to this logger, set for it or inherited from its ancestors.
+     */
+    public LogLevel getEffectiveLevel() {
+        return configuration.getEffectiveLevel(name);
+    }
+    
+    /**
+     * Recomputes the cached threshold from the configuration. The configuration calls this
+     * for every logger when levels change.
+     */
+    public void refreshLevel() {
+        threshold = configuration.getEffectiveLevel(name).getLevel();
     }
     
     /**
-     * Adds context data that will be included in subsequent log entries.
+     * Adds context data that will be included in subsequent log entries of the current thread.
      */
     public void addContext(String key, Object value) {
-        threadContext.put(key, value);
+        ThreadContext.get().put(key, value);
     }
     
     /**
-     * Adds a tag that will be included in subsequent log entries.
+     * Adds a tag that will be included in subsequent log entries of the current thread.
      */
     public void addTag(String tag, String value) {
-        threadContext.putTag(tag, value);
+        ThreadContext.get().putTag(tag, value);
     }
     
     /**
-     * Removes context data.
+     * Removes context data from the current thread.
      */
     public void removeContext(String key) {
-        threadContext.remove(key);
+        ThreadContext.get().remove(key);
     }
     
     /**
-     * Removes a tag.
+     * Removes a tag from the current thread.
      */
     public void removeTag(String tag) {
-        threadContext.removeTag(tag);
+        ThreadContext.get().removeTag(tag);
     }
     
     /**
@@ -100,53 +162,108 @@ public class RivetLogger {
     private LogEntry createLogEntry(LogLevel level, String message, 
                                    Map<String, Object> context,
                                    Map<String, String> tags, 
-                                   Object[] args) {
+                                   Object[] args,
+                                   Throwable throwable) {
         Instant timestamp = timestampProvider.now();
         
-        String formattedMessage = interpolateMessage(message, args);
+        LogEntry.Builder builder = new LogEntry.Builder();
+        if (configuration.isDeferredFormatting() && message != null && args != null && args.length > 0) {
+            // Keep the template and raw values; the message is built only if someone reads it
+            builder.messageTemplate(message, captureArgs(args));
+        } else {
+            builder.message(interpolateMessage(message, resolveArgs(args)));
+        }
         
-        return new LogEntry.Builder()
+        return builder
             .timestamp(timestamp)
             .level(level)
             .loggerName(name)
-            .message(formattedMessage)
-            .context(context)
+            .context(resolveContext(context))
             .tags(tags)
             .threadId(Thread.currentThread().getId())
             .threadName(Thread.currentThread().getName())
+            .throwable(throwable)
             .build();
     }
     
+    /**
+     * Replaces {@link LazyValue} arguments with their values.
+     * The caller's array is only copied when it actually contains a lazy value.
+     */
+    private Object[] resolveArgs(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] resolved = args;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof LazyValue) {
+                if (resolved == args) {
+                    resolved = args.clone();
+                }
+                resolved[i] = ((LazyValue) args[i]).get();
+            }
+        }
+        return resolved;
+    }
+    
+    /**
+     * Copies arguments for deferred formatting. Strings, numbers, booleans and enums are kept
+     * as they are; lazy values are resolved and other objects rendered now, since they may
+     * change or be reused after the call returns.
+     */
+    private static Object[] captureArgs(Object[] args) {
+        Object[] captured = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i] instanceof LazyValue ? ((LazyValue) args[i]).get() : args[i];
+            if (arg == null || arg instanceof String || arg instanceof Boolean || arg instanceof Enum
+                    || arg instanceof Long || arg instanceof Integer || arg instanceof Double 
+                    || arg instanceof Float || arg instanceof Short || arg instanceof Byte) {
+                captured[i] = arg;
+            } else {
+                StringBuilder rendered = new StringBuilder();
+                MessageTemplate.appendArgument(rendered, arg);
+                captured[i] = rendered.toString();
+            }
+        }
+        return captured;
+    }
+    
+    /**
+     * Replaces {@link LazyValue} context values with their values.
+     * The caller's map is only copied when it actually contains a lazy value.
+     */
+    private Map<String, Object> resolveContext(Map<String, Object> context) {
+        if (context == null) {
+            return null;
+        }
+        Map<String, Object> resolved = context;
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (entry.getValue() instanceof LazyValue) {
+                if (resolved == context) {
+                    resolved = new HashMap<>(context);
+                }
+                resolved.put(entry.getKey(), ((LazyValue) entry.getValue()).get());
+            }
+        }
+        return resolved;
+    }
+    
     private String interpolateMessage(String message, Object[] args) {
         if (args == null || args.length == 0 || message == null) {
             return message;
         }
         
-        // Simple message interpolation: replace {0}, {1}, etc. with args
-        String result = message;
-        for (int i = 0; i < args.length; i++) {
-            String placeholder = "{" + i + "}";
-            result = result.replace(placeholder, Objects.toString(args[i], "null"));
-        }
-        return result;
+        // Templates are parsed once and cached; supports {0}, {name} and {} placeholders
+        return MessageTemplate.of(message).format(args);
     }
     
     private void formatAndOutput(LogEntry entry) {
-        try {
-            String jsonLog = jsonFormatter.format(entry);
-            
-            // Output to configured sinks
-            for (LogSink sink : configuration.getSinks()) {
-                sink.write(jsonLog);
-            }
-            
-            // Also output to stderr for development
-            if (configuration.isDebugToConsole()) {
-                System.err.println(jsonLog);
-            }
-        } catch (Exception e) {
-            // Fallback logging in case of JSON formatting issues
-            System.err.println("Chronicle logging error: " + e.getMessage());
+        // In async mode formatting and sink I/O happen on the consumer threads
+        AsyncDispatcher dispatcher = configuration.getAsyncDispatcher();
+        if (dispatcher != null) {
+            dispatcher.publish(entry);
+        } else {
+            logWriter.write(entry);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.core.LogWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands log entries from application threads to background consumer threads.
+ * 
+ * Application threads only publish the already-built {@link LogEntry} into a
+ * preallocated {@link RingBuffer}; formatting and sink I/O happen on the consumer
+ * threads, so a slow sink no longer adds latency to the calling thread.
+ * When the ring is full, producers wait using the configured {@link WaitStrategy}.
+ */
+public class AsyncDispatcher {
+    
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000L;
+    
+    private final RingBuffer<LogEntry> ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private final LogWriter writer;
+    private final List<Thread> consumers;
+    private final Thread shutdownHook;
+    private volatile boolean running = true;
+    
+    public AsyncDispatcher(RivetConfiguration configuration) {
+        this(configuration.getAsyncBufferSize(), configuration.getAsyncWaitStrategy(),
+             configuration.getAsyncConsumerThreads(), new LogWriter(configuration));
+    }
+    
+    public AsyncDispatcher(int bufferSize, WaitStrategy waitStrategy, int consumerThreads, LogWriter writer) {
+        if (consumerThreads < 1) {
+            throw new IllegalArgumentException("At least one consumer thread is required: " + consumerThreads);
+        }
+        this.ringBuffer = new RingBuffer<>(bufferSize);
+        this.waitStrategy = waitStrategy;
+        this.writer = writer;
+        this.consumers = new ArrayList<>(consumerThreads);
+        for (int i = 0; i < consumerThreads; i++) {
+            Thread consumer = new Thread(this::consume, "rivet-async-" + i);
+            consumer.setDaemon(true);
+            consumers.add(consumer);
+            consumer.start();
+        }
+        this.shutdownHook = new Thread(this::shutdown, "rivet-async-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+    
+    /**
+     * Publishes an entry, waiting for a free slot if the ring is full.
+     * After shutdown the entry is written on the calling thread.
+     */
+    public void publish(LogEntry entry) {
+        if (!running) {
+            writer.write(entry);
+            return;
+        }
+        int attempt = 0;
+        while (!ringBuffer.offer(entry)) {
+            if (!running) {
+                writer.write(entry);
+                return;
+            }
+            waitStrategy.idle(attempt);
+            if (attempt < Integer.MAX_VALUE) {
+                attempt++;
+            }
+        }
+        if (!running) {
+            // Shutdown raced with the offer and the consumers may already be gone
+            drain();
+        }
+    }
+    
+    /**
+     * Gets how full the ring is, from 0.0 (empty) to 1.0 (full).
+     */
+    public double getFillRatio() {
+        return ringBuffer.fillRatio();
+    }
+    
+    /**
+     * Gets the approximate number of entries waiting to be written.
+     */
+    public int getPendingCount() {
+        return ringBuffer.size();
+    }
+    
+    /**
+     * Gets the ring capacity.
+     */
+    public int getCapacity() {
+        return ringBuffer.capacity();
+    }
+    
+    /**
+     * Checks if consumers are still accepting entries.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Stops the consumers after draining every pending entry and flushes the sinks.
+     * Entries published afterwards are written on the calling thread.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        for (Thread consumer : consumers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                consumer.join(Math.max(1L, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Entries left behind by a consumer that timed out or by a late producer
+        drain();
+        writer.flush();
+    }
+    
+    private void drain() {
+        LogEntry entry;
+        while ((entry = ringBuffer.poll()) != null) {
+            writer.write(entry);
+        }
+    }
+    
+    private void consume() {
+        int attempt = 0;
+        while (true) {
+            LogEntry entry = ringBuffer.poll();
+            if (entry != null) {
+                writer.write(entry);
+                attempt = 0;
+            } else if (!running) {
+                return;
+            } else {
+                waitStrategy.idle(attempt);
+                if (attempt < Integer.MAX_VALUE) {
+                    attempt++;
+                }
+            }
+        }
+    }
+}
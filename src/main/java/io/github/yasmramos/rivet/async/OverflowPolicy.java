@@ -0,0 +1,27 @@
+package io.github.yasmramos.rivet.logging.async;
+
+/**
+ * What a {@link QueuedSink} does with a new entry when its queue is full.
+ */
+public enum OverflowPolicy {
+    
+    /**
+     * Waits until the sink worker frees a slot.
+     */
+    BLOCK,
+    
+    /**
+     * Discards the entry being written.
+     */
+    DROP_NEWEST,
+    
+    /**
+     * Discards the oldest queued entry to make room for the new one.
+     */
+    DROP_OLDEST,
+    
+    /**
+     * Discards entries below the sink's drop threshold level and waits for the rest.
+     */
+    DROP_BELOW_LEVEL
+}
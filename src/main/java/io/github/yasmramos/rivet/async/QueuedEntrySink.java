@@ -0,0 +1,50 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+
+/**
+ * {@link QueuedSink} for an {@link EntryLogSink}, such as a binary file sink.
+ * 
+ * Log entries are immutable, so the queue holds the entries themselves and the worker
+ * thread hands them to the wrapped sink, which encodes them there. Drop summaries are
+ * written as entries too.
+ */
+public class QueuedEntrySink extends QueuedSink implements EntryLogSink {
+    
+    public QueuedEntrySink(EntryLogSink delegate, RivetConfiguration configuration) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK, LogLevel.INFO, 
+             DEFAULT_SUMMARY_INTERVAL_MILLIS, configuration);
+    }
+    
+    public QueuedEntrySink(EntryLogSink delegate, int capacity, OverflowPolicy policy, 
+                           RivetConfiguration configuration) {
+        this(delegate, capacity, policy, LogLevel.INFO, DEFAULT_SUMMARY_INTERVAL_MILLIS, configuration);
+    }
+    
+    /**
+     * Creates a queued entry sink.
+     * 
+     * @see QueuedSink#QueuedSink(io.github.yasmramos.rivet.logging.api.LogSink, int, OverflowPolicy, 
+     *      LogLevel, long, RivetConfiguration)
+     */
+    public QueuedEntrySink(EntryLogSink delegate, int capacity, OverflowPolicy policy, LogLevel dropThreshold,
+                           long summaryIntervalMillis, RivetConfiguration configuration) {
+        super(delegate, capacity, policy, dropThreshold, summaryIntervalMillis, configuration);
+    }
+    
+    @Override
+    public void write(LogEntry entry) {
+        enqueue(entry, entry.getLevel());
+    }
+    
+    /**
+     * Queues a formatted line as an entry, as {@link EntryLogSink} does for any entry sink.
+     */
+    @Override
+    public void write(String logEntry, LogLevel level) {
+        EntryLogSink.super.write(logEntry, level);
+    }
+}
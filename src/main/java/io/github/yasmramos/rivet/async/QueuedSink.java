@@ -0,0 +1,317 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.util.JsonFormatter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sink decorator that gives the wrapped sink its own bounded queue and worker thread.
+ * 
+ * Writers only enqueue the formatted entry, so a stalled sink cannot hold up the
+ * other sinks. When the queue is full the {@link OverflowPolicy} decides what happens;
+ * dropped entries are counted and a summary entry is written to the sink periodically.
+ * 
+ * Only the worker thread calls the wrapped sink, including for {@link #flush()}, so the
+ * wrapped sink does not need to be thread-safe. Flushing and closing give up on a stuck
+ * sink after a timeout. Entries written after {@link #close()} are counted as dropped.
+ * 
+ * {@link EntryLogSink}s do not accept formatted entries; they are queued with
+ * {@link QueuedEntrySink}, which queues the entries themselves.
+ */
+public class QueuedSink implements LogSink {
+    
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long DEFAULT_SUMMARY_INTERVAL_MILLIS = 10_000L;
+    
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000L;
+    private static final long FLUSH_TIMEOUT_MILLIS = 5_000L;
+    
+    private final LogSink delegate;
+    private final RingBuffer<Object> queue;
+    private final OverflowPolicy policy;
+    private final LogLevel dropThreshold;
+    private final long summaryIntervalNanos;
+    private final JsonFormatter summaryFormatter;
+    private final AtomicLong droppedTotal = new AtomicLong();
+    private final AtomicLong droppedSinceSummary = new AtomicLong();
+    private final AtomicLong flushRequested = new AtomicLong();
+    private final AtomicLong flushCompleted = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+    
+    public QueuedSink(LogSink delegate, RivetConfiguration configuration) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK, LogLevel.INFO, 
+             DEFAULT_SUMMARY_INTERVAL_MILLIS, configuration);
+    }
+    
+    public QueuedSink(LogSink delegate, int capacity, OverflowPolicy policy, RivetConfiguration configuration) {
+        this(delegate, capacity, policy, LogLevel.INFO, DEFAULT_SUMMARY_INTERVAL_MILLIS, configuration);
+    }
+    
+    /**
+     * Creates a queued sink.
+     * 
+     * @param delegate The sink doing the actual I/O
+     * @param capacity Queue capacity (rounded up to a power of two)
+     * @param policy What to do when the queue is full
+     * @param dropThreshold Entries below this level are dropped under {@link OverflowPolicy#DROP_BELOW_LEVEL}
+     * @param summaryIntervalMillis How often a summary of dropped entries is written
+     * @param configuration Configuration used to format the drop summary entries
+     */
+    public QueuedSink(LogSink delegate, int capacity, OverflowPolicy policy, LogLevel dropThreshold,
+                      long summaryIntervalMillis, RivetConfiguration configuration) {
+        if (delegate instanceof EntryLogSink && !(this instanceof EntryLogSink)) {
+            throw new IllegalArgumentException("Sink " + delegate.getName() 
+                + " only accepts structured entries; queue it with QueuedEntrySink");
+        }
+        this.delegate = delegate;
+        this.queue = new RingBuffer<>(capacity);
+        this.policy = policy;
+        this.dropThreshold = dropThreshold;
+        this.summaryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(summaryIntervalMillis);
+        this.summaryFormatter = new JsonFormatter(configuration);
+        this.worker = new Thread(this::drain, "rivet-sink-" + delegate.getName());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    @Override
+    public void write(String logEntry) {
+        write(logEntry, null);
+    }
+    
+    @Override
+    public void write(String logEntry, LogLevel level) {
+        enqueue(logEntry, level);
+    }
+    
+    /**
+     * Queues a formatted entry, or a {@link LogEntry} for an entry sink, applying the overflow policy.
+     */
+    void enqueue(Object logEntry, LogLevel level) {
+        if (!running) {
+            recordDrop();
+            return;
+        }
+        if (!queue.offer(logEntry)) {
+            enqueueOnOverflow(logEntry, level);
+        }
+        if (!running) {
+            // Closed while enqueueing: the worker may have exited before taking the entry.
+            // While it is still running, it or close() drains the queue; never wait for it here
+            dropAfterClose();
+        }
+    }
+    
+    private void enqueueOnOverflow(Object logEntry, LogLevel level) {
+        switch (policy) {
+            case DROP_NEWEST:
+                recordDrop();
+                return;
+            case DROP_OLDEST: {
+                int attempt = 0;
+                while (!queue.offer(logEntry)) {
+                    if (!running) {
+                        recordDrop();
+                        return;
+                    }
+                    if (queue.poll() != null) {
+                        recordDrop();
+                    } else {
+                        // Another writer took the freed slot; back off instead of spinning
+                        WaitStrategy.YIELD.idle(attempt);
+                        if (attempt < Integer.MAX_VALUE) {
+                            attempt++;
+                        }
+                    }
+                }
+                return;
+            }
+            case DROP_BELOW_LEVEL:
+                if (level != null && !level.isAtLeast(dropThreshold)) {
+                    recordDrop();
+                    return;
+                }
+                enqueueBlocking(logEntry);
+                return;
+            case BLOCK:
+            default:
+                enqueueBlocking(logEntry);
+        }
+    }
+    
+    /**
+     * Waits until every entry queued before the call has been written and the worker
+     * has flushed the wrapped sink, or until the flush timeout passes.
+     */
+    @Override
+    public void flush() {
+        long ticket = flushRequested.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+        int attempt = 0;
+        while (flushCompleted.get() < ticket && worker.isAlive()) {
+            if (System.nanoTime() - deadline >= 0) {
+                System.err.println("Chronicle sink error (" + delegate.getName() + "): flush timed out after " 
+                    + FLUSH_TIMEOUT_MILLIS + " ms");
+                return;
+            }
+            WaitStrategy.PARK.idle(attempt);
+            if (attempt < Integer.MAX_VALUE) {
+                attempt++;
+            }
+        }
+    }
+    
+    /**
+     * Drains the queue, stops the worker and closes the wrapped sink.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropAfterClose();
+        delegate.close();
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    /**
+     * Gets the total number of entries dropped by this sink.
+     */
+    public long getDroppedCount() {
+        return droppedTotal.get();
+    }
+    
+    /**
+     * Gets the approximate number of entries waiting to be written.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+    
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+    
+    public LogSink getDelegate() {
+        return delegate;
+    }
+    
+    private void enqueueBlocking(Object logEntry) {
+        int attempt = 0;
+        while (!queue.offer(logEntry)) {
+            if (!running) {
+                recordDrop();
+                return;
+            }
+            WaitStrategy.PARK.idle(attempt);
+            if (attempt < Integer.MAX_VALUE) {
+                attempt++;
+            }
+        }
+    }
+    
+    /**
+     * Counts entries still queued once the worker has stopped as dropped.
+     */
+    private void dropAfterClose() {
+        if (!worker.isAlive()) {
+            while (queue.poll() != null) {
+                recordDrop();
+            }
+        }
+    }
+    
+    private void recordDrop() {
+        droppedTotal.incrementAndGet();
+        droppedSinceSummary.incrementAndGet();
+    }
+    
+    private void drain() {
+        int attempt = 0;
+        long nextSummary = System.nanoTime() + summaryIntervalNanos;
+        while (true) {
+            Object logEntry = queue.poll();
+            if (logEntry != null) {
+                writeSafely(logEntry);
+                attempt = 0;
+            } else if (flushRequested.get() > flushCompleted.get()) {
+                // Requests are made after their entries were queued, so the entries queued
+                // before the request was read are written before flushing
+                long requested = flushRequested.get();
+                while ((logEntry = queue.poll()) != null) {
+                    writeSafely(logEntry);
+                }
+                flushSafely();
+                flushCompleted.set(requested);
+            } else if (!running) {
+                break;
+            } else {
+                WaitStrategy.PARK.idle(attempt);
+                if (attempt < Integer.MAX_VALUE) {
+                    attempt++;
+                }
+            }
+            if (System.nanoTime() - nextSummary >= 0) {
+                writeDropSummary();
+                nextSummary = System.nanoTime() + summaryIntervalNanos;
+            }
+        }
+        writeDropSummary();
+        flushSafely();
+        flushCompleted.set(Long.MAX_VALUE);
+    }
+    
+    private void writeDropSummary() {
+        long dropped = droppedSinceSummary.getAndSet(0);
+        if (dropped == 0) {
+            return;
+        }
+        LogEntry summary = new LogEntry.Builder()
+            .timestamp(Instant.now())
+            .level(LogLevel.WARN)
+            .loggerName(QueuedSink.class.getName())
+            .message("Sink " + delegate.getName() + " dropped " + dropped + " log entries")
+            .context(Map.of("sink", delegate.getName(), "dropped", dropped,
+                            "droppedTotal", droppedTotal.get(), "policy", policy.name()))
+            .threadId(Thread.currentThread().getId())
+            .threadName(Thread.currentThread().getName())
+            .build();
+        writeSafely(delegate instanceof EntryLogSink ? summary : summaryFormatter.format(summary));
+    }
+    
+    private void flushSafely() {
+        try {
+            delegate.flush();
+        } catch (Exception e) {
+            System.err.println("Chronicle sink error (" + delegate.getName() + "): " + e.getMessage());
+        }
+    }
+    
+    private void writeSafely(Object logEntry) {
+        try {
+            if (logEntry instanceof LogEntry) {
+                ((EntryLogSink) delegate).write((LogEntry) logEntry);
+            } else {
+                delegate.write((String) logEntry);
+            }
+        } catch (Exception e) {
+            System.err.println("Chronicle sink error (" + delegate.getName() + "): " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Preallocated, lock-free, bounded multi-producer / multi-consumer ring buffer.
+ * 
+ * Every slot carries a sequence number that tells producers and consumers whether
+ * the slot is free for the current lap or holds a published element, so claiming
+ * a slot is a single CAS on the producer (or consumer) cursor and no locks are taken.
+ * 
+ * @param <E> element type
+ */
+public class RingBuffer<E> {
+    
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLong producerCursor = new AtomicLong();
+    private final AtomicLong consumerCursor = new AtomicLong();
+    
+    /**
+     * Creates a ring buffer. The capacity is rounded up to the next power of two.
+     */
+    public RingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2: " + requestedCapacity);
+        }
+        this.capacity = nextPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.elements = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Attempts to publish an element without waiting.
+     * 
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = producerCursor.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Attempts to take the next published element without waiting.
+     * 
+     * @return the element, or null if the buffer is empty
+     */
+    public E poll() {
+        while (true) {
+            long position = consumerCursor.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumerCursor.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of slots in this buffer.
+     */
+    public int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * Gets an approximate number of published but not yet consumed elements.
+     */
+    public int size() {
+        long size = producerCursor.get() - consumerCursor.get();
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+    
+    /**
+     * Checks if the buffer is (approximately) empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Gets how full the buffer is, from 0.0 (empty) to 1.0 (full).
+     */
+    public double fillRatio() {
+        return (double) size() / capacity;
+    }
+    
+    private static int nextPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
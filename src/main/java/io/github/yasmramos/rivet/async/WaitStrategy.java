@@ -0,0 +1,61 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Strategies used by ring buffer producers and consumers while waiting
+ * for a free slot or for a published entry.
+ * Ordered from lowest latency / highest CPU usage to highest latency / lowest CPU usage.
+ */
+public enum WaitStrategy {
+    
+    /**
+     * Spins on the CPU. Lowest latency, burns a full core per waiting thread.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+    
+    /**
+     * Spins briefly, then yields the CPU to other runnable threads.
+     */
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    
+    /**
+     * Spins, yields and finally parks the thread for short periods.
+     * Best suited for consumers that are idle most of the time.
+     */
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+    
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 100_000L;
+    
+    /**
+     * Waits once. {@code attempt} is the number of consecutive unsuccessful attempts so far.
+     */
+    abstract void idle(int attempt);
+}
@@ -0,0 +1,81 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import io.github.yasmramos.rivet.logging.util.MutableArrayMap;
+import org.slf4j.Marker;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Marker handling shared by the SLF4J logger and its fluent event builder.
+ * Markers are attached to the entry being logged as the {@value #TAG} tag, whose value lists
+ * the marker and every marker it references, and never to the thread's context.
+ */
+final class Markers {
+    
+    /**
+     * Tag under which the marker names of an event are written.
+     */
+    static final String TAG = "marker";
+    
+    private Markers() {
+        // Utility class
+    }
+    
+    /**
+     * Checks whether a marker, or any marker it references, is denied.
+     */
+    static boolean isDenied(Marker marker, Set<String> deniedMarkers) {
+        if (marker == null || deniedMarkers.isEmpty()) {
+            return false;
+        }
+        for (String name : deniedMarkers) {
+            if (marker.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the names of a marker and its nested references, comma separated, each once.
+     */
+    static String names(Marker marker) {
+        if (!marker.hasReferences()) {
+            return marker.getName();
+        }
+        StringBuilder names = new StringBuilder();
+        appendNames(marker, names, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return names.toString();
+    }
+    
+    /**
+     * Appends the names of a marker and its nested references, skipping markers already seen.
+     */
+    static void appendNames(Marker marker, StringBuilder names, Set<Marker> seen) {
+        if (!seen.add(marker)) {
+            return;
+        }
+        if (names.length() > 0) {
+            names.append(',');
+        }
+        names.append(marker.getName());
+        Iterator<Marker> references = marker.iterator();
+        while (references.hasNext()) {
+            appendNames(references.next(), names, seen);
+        }
+    }
+    
+    /**
+     * Gets the tags of an event: the thread's tags plus the marker tag.
+     */
+    static Map<String, String> withMarkerTag(Map<String, String> tags, String markerNames) {
+        MutableArrayMap<String> merged = new MutableArrayMap<>(tags.size() + 1);
+        merged.putAll(tags);
+        merged.put(TAG, markerNames);
+        return merged;
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SLF4J logger factory backed by Rivet.
+ * Each name maps to a single {@link RivetSLF4JLogger}, created on first use.
+ */
+public class RivetLoggerFactory implements ILoggerFactory {
+    
+    private final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    
+    @Override
+    public Logger getLogger(String name) {
+        // Plain lookup first: the common case must not allocate a capturing lambda
+        Logger existing = loggers.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return loggers.computeIfAbsent(name, RivetSLF4JLogger::new);
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import io.github.yasmramos.rivet.logging.api.LazyValue;
+import io.github.yasmramos.rivet.logging.api.RivetLogger;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.util.MessageTemplate;
+import io.github.yasmramos.rivet.logging.util.MutableArrayMap;
+import io.github.yasmramos.rivet.logging.util.ThreadContext;
+import org.slf4j.Marker;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Native SLF4J 2 fluent event builder.
+ * 
+ * Markers, with their nested references, are written as a tag of this entry only, and an
+ * event with a denied marker is dropped before anything is merged or formatted.
+ * Key-value pairs become typed context values of the entry (merged over the thread's MDC
+ * context) instead of being formatted into the message, and arguments are handed to Rivet's
+ * message template engine as they are, so {@link Supplier} arguments and values stay lazy
+ * and deferred formatting applies. Disabled levels never get here: {@code atInfo()} and
+ * friends return SLF4J's shared no-op builder.
+ * 
+ * A builder is used for a single statement and is not thread-safe.
+ */
+final class RivetLoggingEventBuilder implements LoggingEventBuilder {
+    
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    private final RivetLogger logger;
+    private final RivetConfiguration configuration;
+    private final LogLevel level;
+    private String message;
+    private Supplier<String> messageSupplier;
+    private Object[] args = NO_ARGS;
+    private int argCount;
+    private MutableArrayMap<Object> keyValues;
+    private Marker marker;
+    private List<Marker> moreMarkers;
+    private Throwable cause;
+    
+    RivetLoggingEventBuilder(RivetLogger logger, RivetConfiguration configuration, LogLevel level) {
+        this.logger = logger;
+        this.configuration = configuration;
+        this.level = level;
+    }
+    
+    @Override
+    public LoggingEventBuilder setCause(Throwable cause) {
+        this.cause = cause;
+        return this;
+    }
+    
+    @Override
+    public LoggingEventBuilder addMarker(Marker marker) {
+        if (marker == null) {
+            return this;
+        }
+        if (this.marker == null) {
+            this.marker = marker;
+        } else {
+            if (moreMarkers == null) {
+                moreMarkers = new ArrayList<>(2);
+            }
+            moreMarkers.add(marker);
+        }
+        return this;
+    }
+    
+    @Override
+    public LoggingEventBuilder addArgument(Object arg) {
+        if (argCount == args.length) {
+            args = Arrays.copyOf(args, Math.max(4, argCount * 2));
+        }
+        args[argCount++] = arg;
+        return this;
+    }
+    
+    @Override
+    public LoggingEventBuilder addArgument(Supplier<?> objectSupplier) {
+        // Resolved by RivetLogger only if the entry is written
+        return addArgument((Object) LazyValue.of(objectSupplier));
+    }
+    
+    @Override
+    public LoggingEventBuilder addKeyValue(String key, Object value) {
+        if (key != null) {
+            if (keyValues == null) {
+                keyValues = new MutableArrayMap<>();
+            }
+            keyValues.put(key, value);
+        }
+        return this;
+    }
+    
+    @Override
+    public LoggingEventBuilder addKeyValue(String key, Supplier<Object> valueSupplier) {
+        return addKeyValue(key, (Object) LazyValue.of(valueSupplier));
+    }
+    
+    @Override
+    public LoggingEventBuilder setMessage(String message) {
+        this.message = message;
+        this.messageSupplier = null;
+        return this;
+    }
+    
+    @Override
+    public LoggingEventBuilder setMessage(Supplier<String> messageSupplier) {
+        this.message = null;
+        this.messageSupplier = messageSupplier;
+        return this;
+    }
+    
+    @Override
+    public void log() {
+        // Marker filters run before the context is merged or the message formatted
+        if (marker != null && isDenied()) {
+            return;
+        }
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        Map<String, Object> context = snapshot.getContext();
+        if (keyValues != null) {
+            // Event key-values override MDC entries with the same key
+            MutableArrayMap<Object> merged = new MutableArrayMap<>(context.size() + keyValues.size());
+            merged.putAll(context);
+            merged.putAll(keyValues);
+            context = merged;
+        }
+        Map<String, String> tags = snapshot.getTags();
+        if (marker != null) {
+            tags = Markers.withMarkerTag(tags, markerNames());
+        }
+        
+        // RivetLogger consumes the arguments before returning, so a full array is passed as is
+        Object[] arguments = argCount == args.length ? args : Arrays.copyOf(args, argCount);
+        Throwable throwable = cause;
+        if (throwable == null) {
+            throwable = RivetSLF4JLogger.trailingThrowable(args, argCount);
+            if (throwable != null) {
+                arguments = Arrays.copyOf(args, argCount - 1);
+            }
+        }
+        
+        if (messageSupplier != null) {
+            Supplier<String> supplier = messageSupplier;
+            if (arguments.length > 0) {
+                // The format is only known once supplied, so it is always rendered with SLF4J's rules
+                Supplier<String> formatSupplier = messageSupplier;
+                Object[] supplied = arguments;
+                supplier = () -> {
+                    String format = formatSupplier.get();
+                    return format != null ? MessageTemplate.compileSlf4j(format).format(supplied) : null;
+                };
+                arguments = null;
+            }
+            logger.logLazy(level, supplier, context, tags, arguments, throwable);
+        } else {
+            String rendered = RivetSLF4JLogger.renderIncompatible(message, arguments);
+            if (rendered != null) {
+                logger.log(level, rendered, context, tags, null, throwable);
+            } else {
+                logger.log(level, message, context, tags, arguments, throwable);
+            }
+        }
+    }
+    
+    private boolean isDenied() {
+        Set<String> denied = configuration.getDeniedMarkers();
+        if (denied.isEmpty()) {
+            return false;
+        }
+        if (Markers.isDenied(marker, denied)) {
+            return true;
+        }
+        if (moreMarkers != null) {
+            for (Marker other : moreMarkers) {
+                if (Markers.isDenied(other, denied)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private String markerNames() {
+        if (moreMarkers == null) {
+            return Markers.names(marker);
+        }
+        StringBuilder names = new StringBuilder();
+        Set<Marker> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Markers.appendNames(marker, names, seen);
+        for (Marker other : moreMarkers) {
+            Markers.appendNames(other, names, seen);
+        }
+        return names.toString();
+    }
+    
+    @Override
+    public void log(String message) {
+        setMessage(message);
+        log();
+    }
+    
+    @Override
+    public void log(String format, Object arg) {
+        setMessage(format);
+        addArgument(arg);
+        log();
+    }
+    
+    @Override
+    public void log(String format, Object arg1, Object arg2) {
+        setMessage(format);
+        addArgument(arg1);
+        addArgument(arg2);
+        log();
+    }
+    
+    @Override
+    public void log(String format, Object... args) {
+        setMessage(format);
+        if (argCount == 0 && args != null) {
+            this.args = args;
+            this.argCount = args.length;
+        } else if (args != null) {
+            for (Object arg : args) {
+                addArgument(arg);
+            }
+        }
+        log();
+    }
+    
+    @Override
+    public void log(Supplier<String> messageSupplier) {
+        setMessage(messageSupplier);
+        log();
+    }
+}
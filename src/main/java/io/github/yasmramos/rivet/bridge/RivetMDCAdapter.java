@@ -0,0 +1,103 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import io.github.yasmramos.rivet.logging.util.ThreadContext;
+import org.slf4j.spi.MDCAdapter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SLF4J MDC adapter backed by {@link ThreadContext}.
+ * Values put through {@code MDC} are Rivet context entries, so they show up in log entries
+ * and follow {@link io.github.yasmramos.rivet.logging.util.ContextPropagation} across threads.
+ * 
+ * The keyed deques of SLF4J 2 are kept per thread beside the context, as in SLF4J's
+ * own adapters.
+ */
+public class RivetMDCAdapter implements MDCAdapter {
+    
+    private final ThreadLocal<Map<String, Deque<String>>> deques = new ThreadLocal<>();
+    
+    @Override
+    public void put(String key, String val) {
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        ThreadContext.get().put(key, val);
+    }
+    
+    @Override
+    public String get(String key) {
+        Object value = ThreadContext.get().get(key);
+        return value == null || value instanceof String ? (String) value : String.valueOf(value);
+    }
+    
+    @Override
+    public void remove(String key) {
+        ThreadContext.get().remove(key);
+    }
+    
+    @Override
+    public void clear() {
+        ThreadContext.get().clearContext();
+        deques.remove();
+    }
+    
+    @Override
+    public Map<String, String> getCopyOfContextMap() {
+        Map<String, Object> context = ThreadContext.get().getAll();
+        if (context.isEmpty()) {
+            return null;
+        }
+        Map<String, String> copy = new HashMap<>();
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            copy.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return copy;
+    }
+    
+    @Override
+    public void setContextMap(Map<String, String> contextMap) {
+        ThreadContext context = ThreadContext.get();
+        context.clearContext();
+        if (contextMap != null) {
+            for (Map.Entry<String, String> entry : contextMap.entrySet()) {
+                context.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    @Override
+    public void pushByKey(String key, String value) {
+        Map<String, Deque<String>> map = deques.get();
+        if (map == null) {
+            map = new HashMap<>();
+            deques.set(map);
+        }
+        map.computeIfAbsent(key, k -> new ArrayDeque<>()).push(value);
+    }
+    
+    @Override
+    public String popByKey(String key) {
+        Map<String, Deque<String>> map = deques.get();
+        Deque<String> deque = map != null ? map.get(key) : null;
+        return deque != null ? deque.poll() : null;
+    }
+    
+    @Override
+    public Deque<String> getCopyOfDequeByKey(String key) {
+        Map<String, Deque<String>> map = deques.get();
+        Deque<String> deque = map != null ? map.get(key) : null;
+        return deque != null ? new ArrayDeque<>(deque) : null;
+    }
+    
+    @Override
+    public void clearDequeByKey(String key) {
+        Map<String, Deque<String>> map = deques.get();
+        if (map != null) {
+            map.remove(key);
+        }
+    }
+}
@@ -2,27 +2,37 @@ package io.github.yasmramos.rivet.logging.bridge;
 
 import io.github.yasmramos.rivet.logging.api.RivetLogger;
 import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
 import io.github.yasmramos.rivet.logging.core.Rivet;
+import io.github.yasmramos.rivet.logging.util.MessageTemplate;
+import io.github.yasmramos.rivet.logging.util.ThreadContext;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
-import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Rivet implementation of SLF4J Logger interface.
  * Allows Rivet to be used as a backend for SLF4J.
  * 
- * Example usage:
- * Logger slf4jLogger = RivetSLF4JLogger.getLogger(MyClass.class);
+ * With rivet-logging on the classpath, {@code LoggerFactory.getLogger} returns these
+ * loggers through {@link RivetServiceProvider}. They can also be obtained directly:
+ * Logger slf4jLogger = RivetSLF4JLogger.Factory.getLogger(MyClass.class);
  * slf4jLogger.info("Usando Rivet por detrás");
  */
 public class RivetSLF4JLogger implements Logger {
     
     private final RivetLogger rivetLogger;
+    private final RivetConfiguration configuration;
     private final String name;
     
     RivetSLF4JLogger(String name) {
         this.name = name;
         this.rivetLogger = Rivet.getLogger(name);
+        this.configuration = Rivet.getConfiguration();
     }
     
     @Override
@@ -30,6 +40,20 @@ public class RivetSLF4JLogger implements Logger {
         return name;
     }
     
+    @Override
+    public boolean isEnabledForLevel(Level level) {
+        return rivetLogger.isLevelEnabled(toLogLevel(level));
+    }
+    
+    /**
+     * Creates Rivet's native fluent event builder. SLF4J's {@code atInfo()} and friends
+     * only call this for enabled levels and return a shared no-op builder otherwise.
+     */
+    @Override
+    public LoggingEventBuilder makeLoggingEventBuilder(Level level) {
+        return new RivetLoggingEventBuilder(rivetLogger, configuration, toLogLevel(level));
+    }
+    
     @Override
     public boolean isTraceEnabled() {
         return rivetLogger.isLevelEnabled(LogLevel.TRACE);
@@ -37,57 +61,57 @@ public class RivetSLF4JLogger implements Logger {
     
     @Override
     public boolean isTraceEnabled(Marker marker) {
-        return isTraceEnabled();
+        return isTraceEnabled() && !Markers.isDenied(marker, configuration.getDeniedMarkers());
     }
     
     @Override
     public void trace(String msg) {
-        log(LogLevel.TRACE, msg, null, null, null, null);
+        logMessage(LogLevel.TRACE, null, msg, null);
     }
     
     @Override
     public void trace(String format, Object arg) {
-        log(LogLevel.TRACE, format, arg, null, null, null);
+        logFormat(LogLevel.TRACE, null, format, arg);
     }
     
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        log(LogLevel.TRACE, format, arg1, arg2, null, null);
+        logFormat(LogLevel.TRACE, null, format, arg1, arg2);
     }
     
     @Override
     public void trace(String format, Object... arguments) {
-        log(LogLevel.TRACE, format, null, null, null, arguments);
+        logFormat(LogLevel.TRACE, null, format, arguments);
     }
     
     @Override
     public void trace(String msg, Throwable t) {
-        log(LogLevel.TRACE, msg, null, t, null, null);
+        logMessage(LogLevel.TRACE, null, msg, t);
     }
     
     @Override
     public void trace(Marker marker, String msg) {
-        log(LogLevel.TRACE, msg, marker, null, null, null);
+        logMessage(LogLevel.TRACE, marker, msg, null);
     }
     
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        log(LogLevel.TRACE, format, arg, marker, null, null);
+        logFormat(LogLevel.TRACE, marker, format, arg);
     }
     
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        log(LogLevel.TRACE, format, arg1, arg2, marker, null);
+        logFormat(LogLevel.TRACE, marker, format, arg1, arg2);
     }
     
     @Override
     public void trace(Marker marker, String format, Object... arguments) {
-        log(LogLevel.TRACE, format, marker, null, null, arguments);
+        logFormat(LogLevel.TRACE, marker, format, arguments);
     }
     
     @Override
     public void trace(Marker marker, String msg, Throwable t) {
-        log(LogLevel.TRACE, msg, marker, t, null, null);
+        logMessage(LogLevel.TRACE, marker, msg, t);
     }
     
     @Override
@@ -97,57 +121,57 @@ public class RivetSLF4JLogger implements Logger {
     
     @Override
     public boolean isDebugEnabled(Marker marker) {
-        return isDebugEnabled();
+        return isDebugEnabled() && !Markers.isDenied(marker, configuration.getDeniedMarkers());
     }
     
     @Override
     public void debug(String msg) {
-        log(LogLevel.DEBUG, msg, null, null, null, null);
+        logMessage(LogLevel.DEBUG, null, msg, null);
     }
     
     @Override
     public void debug(String format, Object arg) {
-        log(LogLevel.DEBUG, format, arg, null, null, null);
+        logFormat(LogLevel.DEBUG, null, format, arg);
     }
     
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        log(LogLevel.DEBUG, format, arg1, arg2, null, null);
+        logFormat(LogLevel.DEBUG, null, format, arg1, arg2);
     }
     
     @Override
     public void debug(String format, Object... arguments) {
-        log(LogLevel.DEBUG, format, null, null, null, arguments);
+        logFormat(LogLevel.DEBUG, null, format, arguments);
     }
     
     @Override
     public void debug(String msg, Throwable t) {
-        log(LogLevel.DEBUG, msg, null, t, null, null);
+        logMessage(LogLevel.DEBUG, null, msg, t);
     }
     
     @Override
     public void debug(Marker marker, String msg) {
-        log(LogLevel.DEBUG, msg, marker, null, null, null);
+        logMessage(LogLevel.DEBUG, marker, msg, null);
     }
     
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        log(LogLevel.DEBUG, format, arg, marker, null, null);
+        logFormat(LogLevel.DEBUG, marker, format, arg);
     }
     
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        log(LogLevel.DEBUG, format, arg1, arg2, marker, null);
+        logFormat(LogLevel.DEBUG, marker, format, arg1, arg2);
     }
     
     @Override
     public void debug(Marker marker, String format, Object... arguments) {
-        log(LogLevel.DEBUG, format, marker, null, null, arguments);
+        logFormat(LogLevel.DEBUG, marker, format, arguments);
     }
     
     @Override
     public void debug(Marker marker, String msg, Throwable t) {
-        log(LogLevel.DEBUG, msg, marker, t, null, null);
+        logMessage(LogLevel.DEBUG, marker, msg, t);
     }
     
     @Override
@@ -157,57 +181,57 @@ public class RivetSLF4JLogger implements Logger {
     
     @Override
     public boolean isInfoEnabled(Marker marker) {
-        return isInfoEnabled();
+        return isInfoEnabled() && !Markers.isDenied(marker, configuration.getDeniedMarkers());
     }
     
     @Override
     public void info(String msg) {
-        log(LogLevel.INFO, msg, null, null, null, null);
+        logMessage(LogLevel.INFO, null, msg, null);
     }
     
     @Override
     public void info(String format, Object arg) {
-        log(LogLevel.INFO, format, arg, null, null, null);
+        logFormat(LogLevel.INFO, null, format, arg);
     }
     
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        log(LogLevel.INFO, format, arg1, arg2, null, null);
+        logFormat(LogLevel.INFO, null, format, arg1, arg2);
     }
     
     @Override
     public void info(String format, Object... arguments) {
-        log(LogLevel.INFO, format, null, null, null, arguments);
+        logFormat(LogLevel.INFO, null, format, arguments);
     }
     
     @Override
     public void info(String msg, Throwable t) {
-        log(LogLevel.INFO, msg, null, t, null, null);
+        logMessage(LogLevel.INFO, null, msg, t);
     }
     
     @Override
     public void info(Marker marker, String msg) {
-        log(LogLevel.INFO, msg, marker, null, null, null);
+        logMessage(LogLevel.INFO, marker, msg, null);
     }
     
     @Override
     public void info(Marker marker, String format, Object arg) {
-        log(LogLevel.INFO, format, arg, marker, null, null);
+        logFormat(LogLevel.INFO, marker, format, arg);
     }
     
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        log(LogLevel.INFO, format, arg1, arg2, marker, null);
+        logFormat(LogLevel.INFO, marker, format, arg1, arg2);
     }
     
     @Override
     public void info(Marker marker, String format, Object... arguments) {
-        log(LogLevel.INFO, format, marker, null, null, arguments);
+        logFormat(LogLevel.INFO, marker, format, arguments);
     }
     
     @Override
     public void info(Marker marker, String msg, Throwable t) {
-        log(LogLevel.INFO, msg, marker, t, null, null);
+        logMessage(LogLevel.INFO, marker, msg, t);
     }
     
     @Override
@@ -217,57 +241,57 @@ public class RivetSLF4JLogger implements Logger {
     
     @Override
     public boolean isWarnEnabled(Marker marker) {
-        return isWarnEnabled();
+        return isWarnEnabled() && !Markers.isDenied(marker, configuration.getDeniedMarkers());
     }
     
     @Override
     public void warn(String msg) {
-        log(LogLevel.WARN, msg, null, null, null, null);
+        logMessage(LogLevel.WARN, null, msg, null);
     }
     
     @Override
     public void warn(String format, Object arg) {
-        log(LogLevel.WARN, format, arg, null, null, null);
+        logFormat(LogLevel.WARN, null, format, arg);
     }
     
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        log(LogLevel.WARN, format, arg1, arg2, null, null);
+        logFormat(LogLevel.WARN, null, format, arg1, arg2);
     }
     
     @Override
     public void warn(String format, Object... arguments) {
-        log(LogLevel.WARN, format, null, null, null, arguments);
+        logFormat(LogLevel.WARN, null, format, arguments);
     }
     
     @Override
     public void warn(String msg, Throwable t) {
-        log(LogLevel.WARN, msg, null, t, null, null);
+        logMessage(LogLevel.WARN, null, msg, t);
     }
     
     @Override
     public void warn(Marker marker, String msg) {
-        log(LogLevel.WARN, msg, marker, null, null, null);
+        logMessage(LogLevel.WARN, marker, msg, null);
     }
     
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        log(LogLevel.WARN, format, arg, marker, null, null);
+        logFormat(LogLevel.WARN, marker, format, arg);
     }
     
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        log(LogLevel.WARN, format, arg1, arg2, marker, null);
+        logFormat(LogLevel.WARN, marker, format, arg1, arg2);
     }
     
     @Override
     public void warn(Marker marker, String format, Object... arguments) {
-        log(LogLevel.WARN, format, marker, null, null, arguments);
+        logFormat(LogLevel.WARN, marker, format, arguments);
     }
     
     @Override
     public void warn(Marker marker, String msg, Throwable t) {
-        log(LogLevel.WARN, msg, marker, t, null, null);
+        logMessage(LogLevel.WARN, marker, msg, t);
     }
     
     @Override
@@ -277,80 +301,152 @@ public class RivetSLF4JLogger implements Logger {
     
     @Override
     public boolean isErrorEnabled(Marker marker) {
-        return isErrorEnabled();
+        return isErrorEnabled() && !Markers.isDenied(marker, configuration.getDeniedMarkers());
     }
     
     @Override
     public void error(String msg) {
-        log(LogLevel.ERROR, msg, null, null, null, null);
+        logMessage(LogLevel.ERROR, null, msg, null);
     }
     
     @Override
     public void error(String format, Object arg) {
-        log(LogLevel.ERROR, format, arg, null, null, null);
+        logFormat(LogLevel.ERROR, null, format, arg);
     }
     
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        log(LogLevel.ERROR, format, arg1, arg2, null, null);
+        logFormat(LogLevel.ERROR, null, format, arg1, arg2);
     }
     
     @Override
     public void error(String format, Object... arguments) {
-        log(LogLevel.ERROR, format, null, null, null, arguments);
+        logFormat(LogLevel.ERROR, null, format, arguments);
     }
     
     @Override
     public void error(String msg, Throwable t) {
-        log(LogLevel.ERROR, msg, null, t, null, null);
+        logMessage(LogLevel.ERROR, null, msg, t);
     }
     
     @Override
     public void error(Marker marker, String msg) {
-        log(LogLevel.ERROR, msg, marker, null, null, null);
+        logMessage(LogLevel.ERROR, marker, msg, null);
     }
     
     @Override
     public void error(Marker marker, String format, Object arg) {
-        log(LogLevel.ERROR, format, arg, marker, null, null);
+        logFormat(LogLevel.ERROR, marker, format, arg);
     }
     
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        log(LogLevel.ERROR, format, arg1, arg2, marker, null);
+        logFormat(LogLevel.ERROR, marker, format, arg1, arg2);
     }
     
     @Override
     public void error(Marker marker, String format, Object... arguments) {
-        log(LogLevel.ERROR, format, marker, null, null, arguments);
+        logFormat(LogLevel.ERROR, marker, format, arguments);
     }
     
     @Override
     public void error(Marker marker, String msg, Throwable t) {
-        log(LogLevel.ERROR, msg, marker, t, null, null);
-    }
-    
-    private void log(LogLevel level, String format, Object arg1, Object arg2, 
-                     Marker marker, Object[] argsArray) {
-        // Format message using SLF4J message formatter
-        String formattedMessage;
-        if (arg1 != null && arg2 != null) {
-            formattedMessage = MessageFormatter.format(format, arg1, arg2).getMessage();
-        } else if (arg1 != null) {
-            formattedMessage = MessageFormatter.format(format, arg1).getMessage();
-        } else if (argsArray != null && argsArray.length > 0) {
-            formattedMessage = MessageFormatter.arrayFormat(format, argsArray).getMessage();
-        } else {
-            formattedMessage = format;
+        logMessage(LogLevel.ERROR, marker, msg, t);
+    }
+    
+    /*
+     * Every call checks the level before anything else, then hands the raw format and
+     * arguments to RivetLogger, which renders them once with MessageTemplate (or keeps
+     * them for deferred formatting). Only the array for the arguments is allocated.
+     * Formats that Rivet's syntax reads differently from SLF4J, such as "{id}" or an
+     * escaped "\\{}", are rendered here with SLF4J's rules and passed on as plain text.
+     */
+    
+    private void logMessage(LogLevel level, Marker marker, String msg, Throwable throwable) {
+        if (rivetLogger.isLevelEnabled(level)) {
+            emit(level, marker, msg, null, throwable);
+        }
+    }
+    
+    private void logFormat(LogLevel level, Marker marker, String format, Object arg) {
+        if (rivetLogger.isLevelEnabled(level)) {
+            emit(level, marker, format, new Object[] {arg}, null);
+        }
+    }
+    
+    private void logFormat(LogLevel level, Marker marker, String format, Object arg1, Object arg2) {
+        if (rivetLogger.isLevelEnabled(level)) {
+            emit(level, marker, format, new Object[] {arg1, arg2}, null);
+        }
+    }
+    
+    private void logFormat(LogLevel level, Marker marker, String format, Object[] arguments) {
+        if (rivetLogger.isLevelEnabled(level)) {
+            emit(level, marker, format, arguments, null);
+        }
+    }
+    
+    private void emit(LogLevel level, Marker marker, String format, Object[] arguments, Throwable throwable) {
+        // Marker filters run before anything is formatted
+        if (marker != null && Markers.isDenied(marker, configuration.getDeniedMarkers())) {
+            return;
+        }
+        if (throwable == null && arguments != null) {
+            throwable = trailingThrowable(arguments, arguments.length);
+            if (throwable != null) {
+                arguments = Arrays.copyOf(arguments, arguments.length - 1);
+            }
+        }
+        String rendered = renderIncompatible(format, arguments);
+        if (rendered != null) {
+            format = rendered;
+            arguments = null;
         }
         
-        // Add marker as a tag if present
+        // The marker is a tag of this entry only; the thread's tags are left untouched
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        Map<String, String> tags = snapshot.getTags();
         if (marker != null) {
-            rivetLogger.addTag("marker", marker.getName());
+            tags = Markers.withMarkerTag(tags, Markers.names(marker));
         }
         
-        // Log the formatted message
-        rivetLogger.log(level, formattedMessage, (Object[]) null);
+        rivetLogger.log(level, format, snapshot.getContext(), tags, arguments, throwable);
+    }
+    
+    /**
+     * Gets the exception passed as the last of {@code count} arguments, following SLF4J 2:
+     * a trailing Throwable is always the exception, even if a placeholder is left for it,
+     * and only the arguments before it are formatted. Returns null otherwise.
+     */
+    static Throwable trailingThrowable(Object[] arguments, int count) {
+        return count > 0 && arguments[count - 1] instanceof Throwable ? (Throwable) arguments[count - 1] : null;
+    }
+    
+    /**
+     * Renders a format with SLF4J's rules when Rivet's template syntax would read it
+     * differently. Returns null when the format and arguments can be passed on as they are.
+     */
+    static String renderIncompatible(String format, Object[] arguments) {
+        if (format == null || arguments == null || arguments.length == 0) {
+            return null;
+        }
+        MessageTemplate template = MessageTemplate.ofSlf4j(format);
+        return template.isRivetCompatible() ? null : template.format(arguments);
+    }
+    
+    static LogLevel toLogLevel(Level level) {
+        switch (level) {
+            case TRACE:
+                return LogLevel.TRACE;
+            case DEBUG:
+                return LogLevel.DEBUG;
+            case INFO:
+                return LogLevel.INFO;
+            case WARN:
+                return LogLevel.WARN;
+            default:
+                return LogLevel.ERROR;
+        }
     }
     
     /**
@@ -358,6 +454,8 @@ public class RivetSLF4JLogger implements Logger {
      */
     public static class Factory {
         
+        static final RivetLoggerFactory FACTORY = new RivetLoggerFactory();
+        
         private Factory() {
             // Private constructor to prevent instantiation
         }
@@ -366,14 +464,14 @@ public class RivetSLF4JLogger implements Logger {
          * Gets a Rivet SLF4J logger for the specified class.
          */
         public static Logger getLogger(Class<?> clazz) {
-            return new RivetSLF4JLogger(clazz.getName());
+            return FACTORY.getLogger(clazz.getName());
         }
         
         /**
          * Gets a Rivet SLF4J logger for the specified name.
          */
         public static Logger getLogger(String name) {
-            return new RivetSLF4JLogger(name);
+            return FACTORY.getLogger(name);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.IMarkerFactory;
+import org.slf4j.helpers.BasicMarkerFactory;
+import org.slf4j.spi.MDCAdapter;
+import org.slf4j.spi.SLF4JServiceProvider;
+
+/**
+ * SLF4J 2 service provider binding {@code LoggerFactory.getLogger} to Rivet.
+ * Registered in {@code META-INF/services/org.slf4j.spi.SLF4JServiceProvider}, so having
+ * rivet-logging on the classpath is enough for libraries logging through SLF4J.
+ */
+public class RivetServiceProvider implements SLF4JServiceProvider {
+    
+    /**
+     * SLF4J API version this provider was compiled against.
+     */
+    public static final String REQUESTED_API_VERSION = "2.0.99";
+    
+    private ILoggerFactory loggerFactory;
+    private IMarkerFactory markerFactory;
+    private MDCAdapter mdcAdapter;
+    
+    @Override
+    public void initialize() {
+        loggerFactory = RivetSLF4JLogger.Factory.FACTORY;
+        markerFactory = new BasicMarkerFactory();
+        mdcAdapter = new RivetMDCAdapter();
+    }
+    
+    @Override
+    public ILoggerFactory getLoggerFactory() {
+        return loggerFactory;
+    }
+    
+    @Override
+    public IMarkerFactory getMarkerFactory() {
+        return markerFactory;
+    }
+    
+    @Override
+    public MDCAdapter getMDCAdapter() {
+        return mdcAdapter;
+    }
+    
+    @Override
+    public String getRequestedApiVersion() {
+        return REQUESTED_API_VERSION;
+    }
+}
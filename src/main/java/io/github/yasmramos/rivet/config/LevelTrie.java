@@ -0,0 +1,115 @@
+package io.github.yasmramos.rivet.logging.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable prefix trie of per-logger levels, keyed by the dot-separated segments of
+ * logger names. A level set for {@code com.acme.db} applies to {@code com.acme.db} and
+ * every logger below it, such as {@code com.acme.db.Pool}, but not to {@code com.acme.dbx}.
+ * The deepest configured ancestor wins.
+ * 
+ * Changes return a new trie, so readers never need a lock.
+ */
+final class LevelTrie {
+    
+    static final LevelTrie EMPTY = new LevelTrie(Collections.emptyMap());
+    
+    private final Map<String, LogLevel> levels;
+    private final Node root = new Node();
+    
+    private LevelTrie(Map<String, LogLevel> levels) {
+        this.levels = levels;
+        for (Map.Entry<String, LogLevel> entry : levels.entrySet()) {
+            Node node = root;
+            String name = entry.getKey();
+            int start = 0;
+            while (start <= name.length()) {
+                int end = segmentEnd(name, start);
+                node = node.children.computeIfAbsent(name.substring(start, end), segment -> new Node());
+                start = end + 1;
+            }
+            node.level = entry.getValue();
+        }
+    }
+    
+    /**
+     * Returns a trie with the level of a logger name set.
+     */
+    LevelTrie with(String loggerName, LogLevel level) {
+        Map<String, LogLevel> updated = new LinkedHashMap<>(levels);
+        updated.put(loggerName, level);
+        return new LevelTrie(Collections.unmodifiableMap(updated));
+    }
+    
+    /**
+     * Returns a trie without the level of a logger name.
+     */
+    LevelTrie without(String loggerName) {
+        if (!levels.containsKey(loggerName)) {
+            return this;
+        }
+        Map<String, LogLevel> updated = new LinkedHashMap<>(levels);
+        updated.remove(loggerName);
+        return updated.isEmpty() ? EMPTY : new LevelTrie(Collections.unmodifiableMap(updated));
+    }
+    
+    /**
+     * Gets the level of the deepest configured ancestor of a logger, or {@code rootLevel}
+     * when none is configured.
+     */
+    LogLevel resolve(String loggerName, LogLevel rootLevel) {
+        LogLevel result = rootLevel;
+        if (loggerName == null || levels.isEmpty()) {
+            return result;
+        }
+        Node node = root;
+        int start = 0;
+        while (start <= loggerName.length()) {
+            int end = segmentEnd(loggerName, start);
+            node = node.children.get(loggerName.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.level != null) {
+                result = node.level;
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the most verbose of the configured levels and {@code rootLevel}.
+     */
+    LogLevel lowest(LogLevel rootLevel) {
+        LogLevel lowest = rootLevel;
+        for (LogLevel level : levels.values()) {
+            if (level.getLevel() < lowest.getLevel()) {
+                lowest = level;
+            }
+        }
+        return lowest;
+    }
+    
+    /**
+     * Gets the configured levels by logger name. The map is immutable.
+     */
+    Map<String, LogLevel> toMap() {
+        return levels;
+    }
+    
+    private static int segmentEnd(String name, int start) {
+        int dot = name.indexOf('.', start);
+        return dot < 0 ? name.length() : dot;
+    }
+    
+    private static final class Node {
+        
+        // Only written while the trie is built, before it is published
+        final Map<String, Node> children = new HashMap<>(4);
+        LogLevel level;
+    }
+}
@@ -1,11 +1,24 @@
 package io.github.yasmramos.rivet.logging.config;
 
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
 import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.api.RivetLogger;
+import io.github.yasmramos.rivet.logging.async.AsyncDispatcher;
+import io.github.yasmramos.rivet.logging.async.OverflowPolicy;
+import io.github.yasmramos.rivet.logging.async.QueuedEntrySink;
+import io.github.yasmramos.rivet.logging.async.QueuedSink;
+import io.github.yasmramos.rivet.logging.async.WaitStrategy;
 
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Configuration class for Rivet logging system.
@@ -13,7 +26,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class RivetConfiguration {
     
-    private LogLevel minimumLevel = LogLevel.INFO;
+    private volatile LogLevel minimumLevel = LogLevel.INFO;
+    private volatile LevelTrie levels = LevelTrie.EMPTY;
+    private volatile LogLevel lowestLevel = LogLevel.INFO;
+    // Loggers whose cached threshold is refreshed when levels change; guarded by this
+    private final Set<RivetLogger> loggers = Collections.newSetFromMap(new WeakHashMap<>());
     private boolean prettyPrint = false;
     private boolean includeHostname = true;
     private boolean debugToConsole = true;
@@ -22,6 +39,15 @@ public class RivetConfiguration {
     private String environment;
     private ZoneId timezone = ZoneId.systemDefault();
     private final List<LogSink> sinks = new CopyOnWriteArrayList<>();
+    private boolean garbageFree = false;
+    private boolean deferredFormatting = false;
+    private boolean async = false;
+    private int asyncBufferSize = 8192;
+    private int asyncConsumerThreads = 1;
+    private WaitStrategy asyncWaitStrategy = WaitStrategy.PARK;
+    private volatile Set<String> deniedMarkers = Collections.emptySet();
+    private volatile AsyncDispatcher asyncDispatcher;
+    private final AtomicInteger version = new AtomicInteger();
     
     // Default constructor
     public RivetConfiguration() {
@@ -30,18 +56,62 @@ public class RivetConfiguration {
     }
     
     /**
-     * Sets the minimum log level to enable.
+     * Sets the minimum log level to enable, for loggers without a level of their own.
      */
-    public RivetConfiguration setMinLevel(LogLevel level) {
+    public synchronized RivetConfiguration setMinLevel(LogLevel level) {
         this.minimumLevel = level;
+        levelsChanged();
         return this;
     }
     
+    /**
+     * Sets the level of a logger and every logger below it in the dot-separated name
+     * hierarchy, e.g. {@code setLevel("com.acme.db", LogLevel.DEBUG)}. The deepest configured
+     * ancestor of a logger wins; loggers without one use the minimum level.
+     * A null level removes the setting.
+     */
+    public synchronized RivetConfiguration setLevel(String loggerName, LogLevel level) {
+        if (loggerName != null && !loggerName.isEmpty()) {
+            levels = level != null ? levels.with(loggerName, level) : levels.without(loggerName);
+            levelsChanged();
+        }
+        return this;
+    }
+    
+    /**
+     * Removes the level set for a logger name, which then inherits from its ancestors again.
+     */
+    public RivetConfiguration clearLevel(String loggerName) {
+        return setLevel(loggerName, null);
+    }
+    
+    /**
+     * Tracks a logger so its cached threshold is refreshed whenever levels change, and
+     * computes its initial threshold. Called by the logger's constructor.
+     */
+    public synchronized void registerLogger(RivetLogger logger) {
+        loggers.add(logger);
+        logger.refreshLevel();
+    }
+    
+    /**
+     * Pushes new thresholds to every live logger at once, so their level check stays a
+     * single field read instead of a lookup on every call. Callers hold the lock.
+     */
+    private void levelsChanged() {
+        lowestLevel = levels.lowest(minimumLevel);
+        version.incrementAndGet();
+        for (RivetLogger logger : loggers) {
+            logger.refreshLevel();
+        }
+    }
+    
     /**
      * Sets whether to format JSON output with pretty printing.
      */
     public RivetConfiguration setPrettyPrint(boolean prettyPrint) {
         this.prettyPrint = prettyPrint;
+        version.incrementAndGet();
         return this;
     }
     
@@ -50,6 +120,7 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setIncludeHostname(boolean includeHostname) {
         this.includeHostname = includeHostname;
+        version.incrementAndGet();
         return this;
     }
     
@@ -58,6 +129,7 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setDebugToConsole(boolean debugToConsole) {
         this.debugToConsole = debugToConsole;
+        version.incrementAndGet();
         return this;
     }
     
@@ -66,6 +138,7 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setApplicationName(String applicationName) {
         this.applicationName = applicationName;
+        version.incrementAndGet();
         return this;
     }
     
@@ -74,6 +147,7 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setApplicationVersion(String applicationVersion) {
         this.applicationVersion = applicationVersion;
+        version.incrementAndGet();
         return this;
     }
     
@@ -82,6 +156,7 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setEnvironment(String environment) {
         this.environment = environment;
+        version.incrementAndGet();
         return this;
     }
     
@@ -90,6 +165,91 @@ public class RivetConfiguration {
      */
     public RivetConfiguration setTimezone(ZoneId timezone) {
         this.timezone = timezone;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets whether fluent statements reuse a thread-local builder instead of allocating one per call.
+     */
+    public RivetConfiguration setGarbageFree(boolean garbageFree) {
+        this.garbageFree = garbageFree;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets whether entries keep the message template and raw arguments instead of
+     * interpolating the message on the logging thread. Binary sinks then store the
+     * template id and arguments, and the message is built when the log is read.
+     */
+    public RivetConfiguration setDeferredFormatting(boolean deferredFormatting) {
+        this.deferredFormatting = deferredFormatting;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets whether formatting and sink I/O run on background consumer threads.
+     */
+    public RivetConfiguration setAsync(boolean async) {
+        this.async = async;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets the async ring buffer size (rounded up to a power of two).
+     */
+    public RivetConfiguration setAsyncBufferSize(int asyncBufferSize) {
+        this.asyncBufferSize = asyncBufferSize;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets the number of consumer threads draining the async ring buffer.
+     */
+    public RivetConfiguration setAsyncConsumerThreads(int asyncConsumerThreads) {
+        this.asyncConsumerThreads = asyncConsumerThreads;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Sets how async producers and consumers wait on a full or empty ring buffer.
+     */
+    public RivetConfiguration setAsyncWaitStrategy(WaitStrategy asyncWaitStrategy) {
+        this.asyncWaitStrategy = asyncWaitStrategy;
+        version.incrementAndGet();
+        return this;
+    }
+    
+    /**
+     * Drops SLF4J events carrying the named marker, directly or through a nested marker
+     * reference. The filter runs before the message is formatted.
+     */
+    public synchronized RivetConfiguration denyMarker(String markerName) {
+        if (markerName != null && !deniedMarkers.contains(markerName)) {
+            // Copy on write: the bridge reads the set on every marked call without locking
+            Set<String> updated = new LinkedHashSet<>(deniedMarkers);
+            updated.add(markerName);
+            deniedMarkers = Collections.unmodifiableSet(updated);
+            version.incrementAndGet();
+        }
+        return this;
+    }
+    
+    /**
+     * Stops dropping events carrying the named marker.
+     */
+    public synchronized RivetConfiguration allowMarker(String markerName) {
+        if (deniedMarkers.contains(markerName)) {
+            Set<String> updated = new LinkedHashSet<>(deniedMarkers);
+            updated.remove(markerName);
+            deniedMarkers = updated.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(updated);
+            version.incrementAndGet();
+        }
         return this;
     }
     
@@ -103,6 +263,36 @@ public class RivetConfiguration {
         return this;
     }
     
+    /**
+     * Adds a log sink behind its own bounded queue and worker thread.
+     * {@link EntryLogSink}s get a {@link QueuedEntrySink}, which queues the entries themselves.
+     */
+    public RivetConfiguration addQueuedSink(LogSink sink, int capacity, OverflowPolicy policy) {
+        if (sink != null) {
+            sinks.add(queued(sink, capacity, policy, LogLevel.INFO));
+        }
+        return this;
+    }
+    
+    /**
+     * Adds a log sink behind its own bounded queue, dropping entries below
+     * {@code dropThreshold} when the queue is full.
+     */
+    public RivetConfiguration addQueuedSink(LogSink sink, int capacity, LogLevel dropThreshold) {
+        if (sink != null) {
+            sinks.add(queued(sink, capacity, OverflowPolicy.DROP_BELOW_LEVEL, dropThreshold));
+        }
+        return this;
+    }
+    
+    private QueuedSink queued(LogSink sink, int capacity, OverflowPolicy policy, LogLevel dropThreshold) {
+        if (sink instanceof EntryLogSink) {
+            return new QueuedEntrySink((EntryLogSink) sink, capacity, policy, dropThreshold,
+                                       QueuedSink.DEFAULT_SUMMARY_INTERVAL_MILLIS, this);
+        }
+        return new QueuedSink(sink, capacity, policy, dropThreshold, QueuedSink.DEFAULT_SUMMARY_INTERVAL_MILLIS, this);
+    }
+    
     /**
      * Removes a log sink.
      */
@@ -119,11 +309,41 @@ public class RivetConfiguration {
         return this;
     }
     
+    /**
+     * Gets a counter that changes whenever a setting is modified.
+     * Components that cache values derived from the configuration compare it to detect changes.
+     */
+    public int getVersion() {
+        return version.get();
+    }
+    
     // Getters
     public LogLevel getMinLevel() {
         return minimumLevel;
     }
     
+    /**
+     * Gets the level that applies to a logger name: that of its deepest configured
+     * ancestor, or the minimum level.
+     */
+    public LogLevel getEffectiveLevel(String loggerName) {
+        return levels.resolve(loggerName, minimumLevel);
+    }
+    
+    /**
+     * Gets the most verbose level enabled for any logger. Calls below it are disabled everywhere.
+     */
+    public LogLevel getLowestLevel() {
+        return lowestLevel;
+    }
+    
+    /**
+     * Gets the levels set per logger name. The map is immutable.
+     */
+    public Map<String, LogLevel> getLevels() {
+        return levels.toMap();
+    }
+    
     public boolean isPrettyPrint() {
         return prettyPrint;
     }
@@ -156,6 +376,73 @@ public class RivetConfiguration {
         return new ArrayList<>(sinks);
     }
     
+    public boolean isGarbageFree() {
+        return garbageFree;
+    }
+    
+    public boolean isDeferredFormatting() {
+        return deferredFormatting;
+    }
+    
+    public boolean isAsync() {
+        return async;
+    }
+    
+    public int getAsyncBufferSize() {
+        return asyncBufferSize;
+    }
+    
+    public int getAsyncConsumerThreads() {
+        return asyncConsumerThreads;
+    }
+    
+    public WaitStrategy getAsyncWaitStrategy() {
+        return asyncWaitStrategy;
+    }
+    
+    /**
+     * Gets the names of the markers whose events are dropped. The set is immutable.
+     */
+    public Set<String> getDeniedMarkers() {
+        return deniedMarkers;
+    }
+    
+    /**
+     * Gets the async dispatcher, starting it on first use.
+     * Returns null when async mode is disabled.
+     */
+    public AsyncDispatcher getAsyncDispatcher() {
+        if (!async) {
+            return null;
+        }
+        AsyncDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher == null) {
+            synchronized (this) {
+                dispatcher = asyncDispatcher;
+                if (dispatcher == null) {
+                    dispatcher = new AsyncDispatcher(this);
+                    asyncDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+    
+    /**
+     * Drains and stops the async dispatcher, if one was started, then flushes every sink.
+     * The stopped dispatcher is kept, so later entries are written on the calling thread
+     * instead of starting a new dispatcher and shutdown hook.
+     */
+    public void shutdown() {
+        AsyncDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        for (LogSink sink : sinks) {
+            sink.flush();
+        }
+    }
+    
     /**
      * Builder pattern for creating configurations.
      */
@@ -171,6 +458,11 @@ public class RivetConfiguration {
             return this;
         }
         
+        public Builder level(String loggerName, LogLevel level) {
+            config.setLevel(loggerName, level);
+            return this;
+        }
+        
         public Builder prettyPrint(boolean pretty) {
             config.setPrettyPrint(pretty);
             return this;
@@ -206,11 +498,56 @@ public class RivetConfiguration {
             return this;
         }
         
+        public Builder garbageFree(boolean garbageFree) {
+            config.setGarbageFree(garbageFree);
+            return this;
+        }
+        
+        public Builder deferredFormatting(boolean deferred) {
+            config.setDeferredFormatting(deferred);
+            return this;
+        }
+        
+        public Builder async(boolean async) {
+            config.setAsync(async);
+            return this;
+        }
+        
+        public Builder asyncBufferSize(int size) {
+            config.setAsyncBufferSize(size);
+            return this;
+        }
+        
+        public Builder asyncConsumerThreads(int threads) {
+            config.setAsyncConsumerThreads(threads);
+            return this;
+        }
+        
+        public Builder asyncWaitStrategy(WaitStrategy strategy) {
+            config.setAsyncWaitStrategy(strategy);
+            return this;
+        }
+        
+        public Builder denyMarker(String markerName) {
+            config.denyMarker(markerName);
+            return this;
+        }
+        
         public Builder addSink(LogSink sink) {
             config.addSink(sink);
             return this;
         }
         
+        public Builder addQueuedSink(LogSink sink, int capacity, OverflowPolicy policy) {
+            config.addQueuedSink(sink, capacity, policy);
+            return this;
+        }
+        
+        public Builder addQueuedSink(LogSink sink, int capacity, LogLevel dropThreshold) {
+            config.addQueuedSink(sink, capacity, dropThreshold);
+            return this;
+        }
+        
         public RivetConfiguration build() {
             return config;
         }
@@ -1,6 +1,8 @@
 package io.github.yasmramos.rivet.logging.core;
 
 import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.util.MessageTemplate;
+import io.github.yasmramos.rivet.logging.util.PersistentArrayMap;
 
 import java.time.Instant;
 import java.util.Map;
@@ -8,27 +10,37 @@ import java.util.Objects;
 
 /**
  * Immutable log entry that contains all information for a single log operation.
+ * 
+ * With deferred formatting the entry keeps the message template and its arguments
+ * instead of the final message, which is only built if {@link #getMessage()} is called.
  */
 public class LogEntry {
     
     private final Instant timestamp;
     private final LogLevel level;
     private final String loggerName;
-    private final String message;
+    private volatile String message;
+    private final String messageTemplate;
+    private final Object[] arguments;
     private final Map<String, Object> context;
     private final Map<String, String> tags;
     private final long threadId;
     private final String threadName;
+    private final Throwable throwable;
     
     private LogEntry(Builder builder) {
         this.timestamp = builder.timestamp;
         this.level = builder.level;
         this.loggerName = builder.loggerName;
         this.message = builder.message;
-        this.context = builder.context != null ? Map.copyOf(builder.context) : Map.of();
-        this.tags = builder.tags != null ? Map.copyOf(builder.tags) : Map.of();
+        this.messageTemplate = builder.messageTemplate;
+        this.arguments = builder.arguments;
+        // Snapshots from ThreadContext are already immutable and are kept as they are
+        this.context = PersistentArrayMap.copyOf(builder.context);
+        this.tags = PersistentArrayMap.copyOf(builder.tags);
         this.threadId = builder.threadId;
         this.threadName = builder.threadName;
+        this.throwable = builder.throwable;
     }
     
     public Instant getTimestamp() {
@@ -43,8 +55,37 @@ public class LogEntry {
         return loggerName;
     }
     
+    /**
+     * Gets the message, interpolating a deferred template on first use.
+     */
     public String getMessage() {
-        return message;
+        String rendered = message;
+        if (rendered == null && messageTemplate != null) {
+            rendered = MessageTemplate.of(messageTemplate).format(arguments);
+            message = rendered;
+        }
+        return rendered;
+    }
+    
+    /**
+     * Checks whether the message is kept as a template and arguments.
+     */
+    public boolean isMessageDeferred() {
+        return messageTemplate != null;
+    }
+    
+    /**
+     * Gets the message template of a deferred message, or null.
+     */
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+    
+    /**
+     * Gets the arguments of a deferred message, or null. The array must not be modified.
+     */
+    public Object[] getArguments() {
+        return arguments;
     }
     
     public Map<String, Object> getContext() {
@@ -63,6 +104,13 @@ public class LogEntry {
         return threadName;
     }
     
+    /**
+     * Gets the exception logged with the entry, or null.
+     */
+    public Throwable getThrowable() {
+        return throwable;
+    }
+    
     /**
      * Builder for LogEntry.
      */
@@ -71,10 +119,13 @@ public class LogEntry {
         private LogLevel level;
         private String loggerName;
         private String message;
+        private String messageTemplate;
+        private Object[] arguments;
         private Map<String, Object> context;
         private Map<String, String> tags;
         private long threadId;
         private String threadName;
+        private Throwable throwable;
         
         public Builder timestamp(Instant timestamp) {
             this.timestamp = timestamp;
@@ -96,6 +147,16 @@ public class LogEntry {
             return this;
         }
         
+        /**
+         * Sets a deferred message: the template is interpolated with the arguments
+         * only when the message is read. The entry takes ownership of the array.
+         */
+        public Builder messageTemplate(String template, Object[] arguments) {
+            this.messageTemplate = template;
+            this.arguments = arguments;
+            return this;
+        }
+        
         public Builder context(Map<String, Object> context) {
             this.context = context;
             return this;
@@ -116,6 +177,11 @@ public class LogEntry {
             return this;
         }
         
+        public Builder throwable(Throwable throwable) {
+            this.throwable = throwable;
+            return this;
+        }
+        
         public LogEntry build() {
             return new LogEntry(this);
         }
@@ -0,0 +1,99 @@
+package io.github.yasmramos.rivet.logging.core;
+
+import io.github.yasmramos.rivet.logging.api.ByteLogSink;
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.util.JsonFormatter;
+import io.github.yasmramos.rivet.logging.util.Utf8Buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formats log entries and writes them to the configured sinks.
+ * Used directly by loggers in synchronous mode and by consumer threads in async mode.
+ * 
+ * Each entry is formatted once; {@link ByteLogSink}s share a single UTF-8 encoding of it
+ * and String-based sinks share a single String, each created only if such a sink exists.
+ * {@link EntryLogSink}s receive the entry itself; JSON is only produced if another sink needs it.
+ */
+public class LogWriter {
+    
+    private static final int MAX_REUSABLE_BUFFER = 64 * 1024;
+    private static final ThreadLocal<Utf8Buffer> ENCODED = ThreadLocal.withInitial(() -> new Utf8Buffer(1024));
+    
+    private final RivetConfiguration configuration;
+    private final JsonFormatter jsonFormatter;
+    
+    public LogWriter(RivetConfiguration configuration) {
+        this.configuration = configuration;
+        this.jsonFormatter = new JsonFormatter(configuration);
+    }
+    
+    /**
+     * Formats the entry and writes it to every configured sink.
+     */
+    public void write(LogEntry entry) {
+        try {
+            CharSequence json = null;
+            String jsonLog = null;
+            Utf8Buffer encoded = null;
+            
+            // Output to configured sinks
+            for (LogSink sink : configuration.getSinks()) {
+                if (sink instanceof EntryLogSink) {
+                    ((EntryLogSink) sink).write(entry);
+                    continue;
+                }
+                if (json == null) {
+                    json = jsonFormatter.formatTo(entry);
+                }
+                if (sink instanceof ByteLogSink) {
+                    ByteBuffer bytes;
+                    if (encoded == null) {
+                        encoded = encodedBuffer();
+                        bytes = encoded.encode(json);
+                    } else {
+                        bytes = encoded.view();
+                    }
+                    ((ByteLogSink) sink).write(bytes, entry.getLevel());
+                } else {
+                    if (jsonLog == null) {
+                        jsonLog = json.toString();
+                    }
+                    sink.write(jsonLog, entry.getLevel());
+                }
+            }
+            
+            // Also output to stderr for development
+            if (configuration.isDebugToConsole()) {
+                if (jsonLog == null) {
+                    jsonLog = (json != null ? json : jsonFormatter.formatTo(entry)).toString();
+                }
+                System.err.println(jsonLog);
+            }
+        } catch (Exception e) {
+            // Fallback logging in case of JSON formatting issues
+            System.err.println("Chronicle logging error: " + e.getMessage());
+        }
+    }
+    
+    private static Utf8Buffer encodedBuffer() {
+        Utf8Buffer buffer = ENCODED.get();
+        if (buffer.capacity() > MAX_REUSABLE_BUFFER) {
+            // Do not keep an oversized buffer alive after an unusually large entry
+            buffer = new Utf8Buffer(1024);
+            ENCODED.set(buffer);
+        }
+        return buffer;
+    }
+    
+    /**
+     * Flushes every configured sink.
+     */
+    public void flush() {
+        for (LogSink sink : configuration.getSinks()) {
+            sink.flush();
+        }
+    }
+}
@@ -53,38 +53,55 @@ public class Rivet {
      * Entry point for fluent API - creates an info level logger.
      */
     public static FluentLoggerBuilder info() {
-        return new FluentLoggerBuilder(LogLevel.INFO, INSTANCE);
+        return INSTANCE.builder(LogLevel.INFO);
     }
     
     /**
      * Entry point for fluent API - creates a debug level logger.
      */
     public static FluentLoggerBuilder debug() {
-        return new FluentLoggerBuilder(LogLevel.DEBUG, INSTANCE);
+        return INSTANCE.builder(LogLevel.DEBUG);
     }
     
     /**
      * Entry point for fluent API - creates a warn level logger.
      */
     public static FluentLoggerBuilder warn() {
-        return new FluentLoggerBuilder(LogLevel.WARN, INSTANCE);
+        return INSTANCE.builder(LogLevel.WARN);
     }
     
     /**
      * Entry point for fluent API - creates an error level logger.
      */
     public static FluentLoggerBuilder error() {
-        return new FluentLoggerBuilder(LogLevel.ERROR, INSTANCE);
+        return INSTANCE.builder(LogLevel.ERROR);
     }
     
     /**
      * Entry point for fluent API - creates a trace level logger.
      */
     public static FluentLoggerBuilder trace() {
-        return new FluentLoggerBuilder(LogLevel.TRACE, INSTANCE);
+        return INSTANCE.builder(LogLevel.TRACE);
+    }
+    
+    private FluentLoggerBuilder builder(LogLevel level) {
+        // The builder's logger is resolved later, so only a level disabled for every
+        // logger can skip the whole chain through the shared no-op builder
+        if (level.getLevel() < configuration.getLowestLevel().getLevel()) {
+            return FluentLoggerBuilder.noOp();
+        }
+        if (configuration.isGarbageFree()) {
+            return FluentLoggerBuilder.reusable(level, this);
+        }
+        return new FluentLoggerBuilder(level, this);
     }
     
     RivetLogger createLogger(String name) {
+        // Plain lookup first: the common case must not allocate a capturing lambda
+        RivetLogger existing = namedLoggers.get(name);
+        if (existing != null) {
+            return existing;
+        }
         return namedLoggers.computeIfAbsent(name, key -> 
             new RivetLogger(key, configuration));
     }
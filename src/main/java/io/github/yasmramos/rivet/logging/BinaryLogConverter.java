@@ -0,0 +1,72 @@
+package io.github.yasmramos.rivet.logging;
+
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.util.BinaryLogDecoder;
+import io.github.yasmramos.rivet.logging.util.JsonFormatter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line converter from Rivet binary logs to JSON, one entry per line.
+ * 
+ * Usage: java io.github.yasmramos.rivet.logging.BinaryLogConverter [--pretty] FILE...
+ */
+public class BinaryLogConverter {
+    
+    public static void main(String[] args) {
+        boolean pretty = false;
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--pretty")) {
+                pretty = true;
+            } else {
+                files.add(Paths.get(arg));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BinaryLogConverter [--pretty] FILE...");
+            System.exit(2);
+        }
+        
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            for (Path file : files) {
+                convert(file, out, pretty);
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Chronicle conversion error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Writes every entry of a binary log as JSON, one entry per line.
+     * 
+     * @return the number of entries converted
+     */
+    public static long convert(Path file, Writer out, boolean pretty) throws IOException {
+        RivetConfiguration configuration = new RivetConfiguration().setPrettyPrint(pretty);
+        JsonFormatter formatter = new JsonFormatter(configuration);
+        long count = 0;
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            LogEntry entry;
+            while ((entry = decoder.next()) != null) {
+                // Envelope fields come from the process that wrote the log, not this one
+                out.append(formatter.formatTo(entry, decoder.getEnvelope())).append('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+}
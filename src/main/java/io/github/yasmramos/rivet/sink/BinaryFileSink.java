@@ -0,0 +1,240 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.util.BinaryFormatter;
+import io.github.yasmramos.rivet.logging.util.BinaryLogDecoder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File sink that writes entries in the compact binary format of {@link BinaryFormatter}
+ * instead of JSON. Convert the file to JSON with
+ * {@link io.github.yasmramos.rivet.logging.BinaryLogConverter} when someone needs to read it.
+ * 
+ * Opening an existing file appends a new stream to it, with its own header. A record
+ * left incomplete by a crash of the previous writer is cut off first, so the new stream
+ * starts right after the last complete record; this reads the existing file once.
+ * 
+ * Example usage:
+ * BinaryFileSink sink = BinaryFileSink.Builder.create(Paths.get("logs/app.rbin"))
+ *     .configuration(config)
+ *     .build();
+ */
+public class BinaryFileSink implements EntryLogSink {
+    
+    private final String name;
+    private final Path file;
+    private final BinaryFormatter formatter;
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final ScheduledExecutorService flusher;
+    private boolean closed;
+    
+    private BinaryFileSink(Builder builder) {
+        this.name = builder.name;
+        this.file = builder.file.toAbsolutePath();
+        this.formatter = new BinaryFormatter(builder.configuration);
+        this.buffer = ByteBuffer.allocateDirect(builder.bufferSize);
+        
+        try {
+            Path directory = file.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            long complete = Files.exists(file) ? completeLength(file) : 0L;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                            StandardOpenOption.APPEND);
+            if (complete < channel.size()) {
+                System.err.println("Chronicle file sink (" + name + "): dropping " + (channel.size() - complete) 
+                    + " bytes of an incomplete record at the end of " + file);
+                channel.truncate(complete);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log file " + file, e);
+        }
+        buffer.put(formatter.header());
+        
+        if (builder.flushIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rivet-file-flusher-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, builder.flushIntervalMillis,
+                                           builder.flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+    
+    @Override
+    public synchronized void write(LogEntry entry) {
+        if (closed) {
+            return;
+        }
+        try {
+            ByteBuffer encoded = formatter.encode(entry);
+            if (encoded.remaining() > buffer.remaining()) {
+                drainBuffer();
+            }
+            if (encoded.remaining() > buffer.capacity()) {
+                // Larger than the whole buffer: write straight to the channel
+                writeFully(encoded);
+            } else {
+                buffer.put(encoded);
+            }
+        } catch (IOException e) {
+            System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            drainBuffer();
+        } catch (IOException e) {
+            System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                drainBuffer();
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the path of the log file.
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    /**
+     * Gets the length of the existing file up to the end of its last complete record.
+     */
+    private static long completeLength(Path file) throws IOException {
+        if (Files.size(file) == 0) {
+            return 0L;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            BinaryLogDecoder decoder;
+            try {
+                decoder = new BinaryLogDecoder(in);
+            } catch (EOFException e) {
+                // Cut off inside the first header
+                return 0L;
+            }
+            try {
+                while (decoder.next() != null) {
+                    // Skip to the end of the complete records
+                }
+            } catch (IOException e) {
+                // A corrupt tail is cut off like an incomplete record
+            }
+            return decoder.getCompleteLength();
+        }
+    }
+    
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+    
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+    
+    /**
+     * Builder for BinaryFileSink.
+     */
+    public static class Builder {
+        private final Path file;
+        private String name = "binary";
+        private RivetConfiguration configuration = new RivetConfiguration();
+        private int bufferSize = 256 * 1024;
+        private long flushIntervalMillis = 1000L;
+        
+        private Builder(Path file) {
+            this.file = file;
+        }
+        
+        public static Builder create(Path file) {
+            return new Builder(file);
+        }
+        
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+        
+        /**
+         * Sets the configuration whose envelope fields (application, environment, ...)
+         * are recorded in the file header.
+         */
+        public Builder configuration(RivetConfiguration configuration) {
+            this.configuration = configuration;
+            return this;
+        }
+        
+        /**
+         * Sets the size of the direct write buffer.
+         */
+        public Builder bufferSize(int bytes) {
+            this.bufferSize = bytes;
+            return this;
+        }
+        
+        /**
+         * Sets how often buffered entries are written out in the background (0 disables).
+         */
+        public Builder flushIntervalMillis(long millis) {
+            this.flushIntervalMillis = millis;
+            return this;
+        }
+        
+        public BinaryFileSink build() {
+            if (bufferSize < 1024) {
+                throw new IllegalArgumentException("Buffer size must be at least 1024 bytes: " + bufferSize);
+            }
+            return new BinaryFileSink(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to rolled log files.
+ */
+public enum CompressionFormat {
+    GZIP(".gz") {
+        @Override
+        OutputStream wrap(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+    DEFLATE(".deflate") {
+        @Override
+        OutputStream wrap(OutputStream out, int level) {
+            return new DeflaterOutputStream(out, new Deflater(level), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        // DeflaterOutputStream only ends deflaters it created itself
+                        def.end();
+                    }
+                }
+            };
+        }
+    };
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final String suffix;
+    
+    CompressionFormat(String suffix) {
+        this.suffix = suffix;
+    }
+    
+    /**
+     * Gets the suffix appended to the name of a compressed file.
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+    
+    abstract OutputStream wrap(OutputStream out, int level) throws IOException;
+}
@@ -0,0 +1,276 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.api.ByteLogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sink that writes entries into preallocated, memory-mapped segment files.
+ * 
+ * Writers claim space in the current segment with an atomic position counter and copy
+ * the entry straight into the mapping, so a write is a memory copy into the page cache
+ * with no system call. When a segment is full the sink maps the next one.
+ * 
+ * Segment layout: a {@value #HEADER_SIZE}-byte header starting with {@link #MAGIC},
+ * followed by records of a little-endian int length and the UTF-8 payload, padded to
+ * 4 bytes. The length is published last with release semantics, so after a JVM crash
+ * {@link SegmentReader} can read every record up to the first one that was not completed.
+ * A zero length marks the end of the data, so empty entries are dropped rather than written.
+ * 
+ * Example usage:
+ * MappedSegmentSink sink = MappedSegmentSink.Builder.create(Paths.get("logs"), "orders")
+ *     .segmentSize(64 * 1024 * 1024)
+ *     .build();
+ */
+public class MappedSegmentSink implements ByteLogSink {
+    
+    /**
+     * Magic bytes at the start of every segment file.
+     */
+    public static final long MAGIC = 0x3130474553545652L; // "RVTSEG01" little-endian
+    public static final int HEADER_SIZE = 16;
+    public static final String SEGMENT_EXTENSION = ".seg";
+    
+    static final int LENGTH_SIZE = 4;
+    static final VarHandle INT_HANDLE = 
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private final String name;
+    private final Path directory;
+    private final String baseName;
+    private final int segmentSize;
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private final ThreadLocal<SegmentView> views = new ThreadLocal<>();
+    
+    private volatile Segment current;
+    private long nextSegmentNumber;
+    private volatile boolean closed;
+    
+    private MappedSegmentSink(Builder builder) {
+        this.name = builder.name;
+        this.directory = builder.directory.toAbsolutePath();
+        this.baseName = builder.baseName;
+        this.segmentSize = builder.segmentSize;
+        try {
+            Files.createDirectories(directory);
+            this.nextSegmentNumber = highestSegmentNumber() + 1;
+            this.current = mapNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create log segment in " + directory, e);
+        }
+    }
+    
+    @Override
+    public void write(ByteBuffer utf8Entry, LogLevel level) {
+        int length = utf8Entry.remaining();
+        int recordSize = recordSize(length);
+        if (closed || length == 0 || recordSize > segmentSize - HEADER_SIZE) {
+            droppedEntries.incrementAndGet();
+            return;
+        }
+        while (true) {
+            Segment segment = current;
+            int start = segment.position.getAndAdd(recordSize);
+            if (start + recordSize <= segmentSize) {
+                ByteBuffer target = view(segment);
+                target.position(start + LENGTH_SIZE);
+                target.put(utf8Entry);
+                // Publish the length last: readers treat a zero length as the end of the data
+                INT_HANDLE.setRelease(segment.buffer, start, length);
+                return;
+            }
+            if (!rollFrom(segment)) {
+                droppedEntries.incrementAndGet();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Forces the current segment's changes to the storage device.
+     * Not needed to survive a JVM crash, only an operating system crash.
+     */
+    @Override
+    public void flush() {
+        Segment segment = current;
+        if (!closed) {
+            segment.buffer.force();
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current.buffer.force();
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the number of entries dropped because they were empty, did not fit in a segment,
+     * or arrived after the sink was closed.
+     */
+    public long getDroppedCount() {
+        return droppedEntries.get();
+    }
+    
+    /**
+     * Gets the path of the segment currently being written.
+     */
+    public Path getCurrentSegment() {
+        return current.path;
+    }
+    
+    /**
+     * Replaces a full segment with the next one, unless another writer already did.
+     * 
+     * @return false if the sink is closed or the next segment could not be created
+     */
+    private synchronized boolean rollFrom(Segment full) {
+        if (closed) {
+            return false;
+        }
+        if (current != full) {
+            return true;
+        }
+        try {
+            current = mapNextSegment();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Chronicle segment sink error (" + name + "): " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private Segment mapNextSegment() throws IOException {
+        Path path = directory.resolve(segmentFileName(baseName, nextSegmentNumber++));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping beyond the end of the file extends it to the full segment size
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, segmentSize);
+        return new Segment(path, buffer);
+    }
+    
+    private long highestSegmentNumber() throws IOException {
+        long highest = -1;
+        String prefix = baseName + "-";
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix + "*" + SEGMENT_EXTENSION)) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                String number = fileName.substring(prefix.length(), fileName.length() - SEGMENT_EXTENSION.length());
+                try {
+                    highest = Math.max(highest, Long.parseLong(number));
+                } catch (NumberFormatException e) {
+                    // Not one of our segments
+                }
+            }
+        }
+        return highest;
+    }
+    
+    /**
+     * Gets a per-thread view of the segment, so concurrent writers do not share a position.
+     */
+    private ByteBuffer view(Segment segment) {
+        SegmentView view = views.get();
+        if (view == null || view.segment != segment) {
+            view = new SegmentView(segment);
+            views.set(view);
+        }
+        return view.buffer;
+    }
+    
+    static int recordSize(int payloadLength) {
+        return (LENGTH_SIZE + payloadLength + 3) & ~3;
+    }
+    
+    static String segmentFileName(String baseName, long number) {
+        return String.format("%s-%020d%s", baseName, number, SEGMENT_EXTENSION);
+    }
+    
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+        
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+    
+    private static final class SegmentView {
+        final Segment segment;
+        final ByteBuffer buffer;
+        
+        SegmentView(Segment segment) {
+            this.segment = segment;
+            this.buffer = segment.buffer.duplicate();
+        }
+    }
+    
+    /**
+     * Builder for MappedSegmentSink.
+     */
+    public static class Builder {
+        private final Path directory;
+        private final String baseName;
+        private String name = "segments";
+        private int segmentSize = 64 * 1024 * 1024;
+        
+        private Builder(Path directory, String baseName) {
+            this.directory = directory;
+            this.baseName = baseName;
+        }
+        
+        public static Builder create(Path directory, String baseName) {
+            return new Builder(directory, baseName);
+        }
+        
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+        
+        /**
+         * Sets the size of each preallocated segment file in bytes.
+         */
+        public Builder segmentSize(int bytes) {
+            this.segmentSize = bytes;
+            return this;
+        }
+        
+        public MappedSegmentSink build() {
+            if (segmentSize < HEADER_SIZE + 64 || segmentSize % 4 != 0) {
+                throw new IllegalArgumentException("Segment size must be a multiple of 4 and at least "
+                    + (HEADER_SIZE + 64) + " bytes: " + segmentSize);
+            }
+            return new MappedSegmentSink(this);
+        }
+    }
+}
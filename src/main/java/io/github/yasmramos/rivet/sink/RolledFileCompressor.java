@@ -0,0 +1,137 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses rolled log files on a small pool of low-priority background threads.
+ * 
+ * The pool size is the CPU budget: at most that many files are compressed in parallel,
+ * and further rollovers wait in the queue. Logging threads only enqueue the file.
+ * A file is compressed to a temporary name, renamed atomically to its final name
+ * and only then is the original deleted, so an interrupted compression never loses data.
+ * One compressor can be shared by several sinks so that they share one budget.
+ */
+public class RolledFileCompressor implements AutoCloseable {
+    
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+    private static volatile RolledFileCompressor defaultCompressor;
+    
+    private final ExecutorService executor;
+    private final int level;
+    
+    /**
+     * Creates a compressor.
+     * 
+     * @param maxParallel Maximum number of files compressed at the same time
+     * @param level Deflater compression level, 1 (fastest) to 9 (smallest)
+     */
+    public RolledFileCompressor(int maxParallel, int level) {
+        if (maxParallel <= 0) {
+            throw new IllegalArgumentException("Parallel compressions must be positive: " + maxParallel);
+        }
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        int pool = POOL_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor threads = new ThreadPoolExecutor(maxParallel, maxParallel, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "rivet-compressor-" + pool + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        // Idle compressors do not keep threads around between rollovers
+        threads.allowCoreThreadTimeOut(true);
+        this.executor = threads;
+    }
+    
+    /**
+     * Gets the compressor shared by sinks that do not configure their own:
+     * one compression at a time at the default level.
+     */
+    public static RolledFileCompressor getDefault() {
+        RolledFileCompressor compressor = defaultCompressor;
+        if (compressor == null) {
+            synchronized (RolledFileCompressor.class) {
+                compressor = defaultCompressor;
+                if (compressor == null) {
+                    compressor = new RolledFileCompressor(1, Deflater.DEFAULT_COMPRESSION);
+                    defaultCompressor = compressor;
+                }
+            }
+        }
+        return compressor;
+    }
+    
+    /**
+     * Queues a file for compression.
+     * 
+     * @return a future completed with the compressed file, or with null if the file
+     *         was deleted (e.g. by retention) before it could be compressed
+     */
+    public CompletableFuture<Path> compress(Path file, CompressionFormat format) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return compressNow(file, format);
+            } catch (IOException e) {
+                System.err.println("Chronicle compression error (" + file.getFileName() + "): " + e.getMessage());
+                return null;
+            }
+        }, executor);
+    }
+    
+    /**
+     * Stops accepting files and waits for queued compressions to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private Path compressNow(Path file, CompressionFormat format) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + format.getSuffix());
+        Path temporary = file.resolveSibling(file.getFileName() + format.getSuffix() + ".tmp");
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = format.wrap(Files.newOutputStream(temporary), level)) {
+                in.transferTo(out);
+            }
+        } catch (NoSuchFileException e) {
+            Files.deleteIfExists(temporary);
+            return null;
+        }
+        // Keep the original timestamp for tools that age out logs by modification time;
+        // retention itself orders rolled files by name
+        Files.setLastModifiedTime(temporary, modified);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        if (!Files.deleteIfExists(file)) {
+            // Retention removed the original while it was being compressed
+            Files.deleteIfExists(target);
+            return null;
+        }
+        return target;
+    }
+}
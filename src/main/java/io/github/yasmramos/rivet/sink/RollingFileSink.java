@@ -0,0 +1,457 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.api.ByteLogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File sink that writes through a {@link FileChannel} with a large direct buffer
+ * and rolls the active file over by size, by time, or both.
+ * 
+ * On rollover the active file is renamed atomically to
+ * {@code <name>-<yyyyMMdd-HHmmss>-<n><extension>} and a new active file is opened.
+ * Rolled files beyond the configured history are deleted, oldest first.
+ * Rolled files can be compressed in the background by a {@link RolledFileCompressor};
+ * compression never runs on the logging threads.
+ * Buffered entries are written when the buffer fills up, on {@link #flush()},
+ * and periodically by a background flusher.
+ * 
+ * Example usage:
+ * RollingFileSink sink = RollingFileSink.Builder.create(Paths.get("logs/app.log"))
+ *     .maxFileSize(100 * 1024 * 1024)
+ *     .rollInterval(Duration.ofDays(1))
+ *     .maxHistory(7)
+ *     .compression(CompressionFormat.GZIP)
+ *     .build();
+ */
+public class RollingFileSink implements ByteLogSink {
+    
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+    private static final DateTimeFormatter ROLL_TIMESTAMP = 
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final int ROLL_TIMESTAMP_LENGTH = 15;
+    
+    private final String name;
+    private final Path file;
+    private final String baseName;
+    private final String extension;
+    private final long maxFileSize;
+    private final long rollIntervalMillis;
+    private final int maxHistory;
+    private final ByteBuffer buffer;
+    private final ScheduledExecutorService flusher;
+    private final CompressionFormat compression;
+    private final RolledFileCompressor compressor;
+    
+    private FileChannel channel;
+    private long fileSize;
+    private long periodStart;
+    private long nextRollTime;
+    private int rollSequence;
+    private boolean closed;
+    
+    private RollingFileSink(Builder builder) {
+        this.name = builder.name;
+        this.file = builder.file.toAbsolutePath();
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        this.baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        this.extension = dot > 0 ? fileName.substring(dot) : "";
+        this.maxFileSize = builder.maxFileSize;
+        this.rollIntervalMillis = builder.rollInterval != null ? builder.rollInterval.toMillis() : 0L;
+        this.maxHistory = builder.maxHistory;
+        this.buffer = ByteBuffer.allocateDirect(builder.bufferSize);
+        this.compression = builder.compression;
+        this.compressor = builder.compressor != null ? builder.compressor : 
+            builder.compression != null ? RolledFileCompressor.getDefault() : null;
+        
+        try {
+            Path directory = file.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            openActiveFile(System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log file " + file, e);
+        }
+        
+        if (builder.flushIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rivet-file-flusher-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, builder.flushIntervalMillis,
+                                           builder.flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+    
+    @Override
+    public synchronized void write(ByteBuffer utf8Entry, LogLevel level) {
+        if (closed) {
+            return;
+        }
+        try {
+            int length = utf8Entry.remaining() + LINE_SEPARATOR.length;
+            try {
+                rollIfNeeded(length);
+            } catch (IOException e) {
+                // Keep the entry in the active file; the roll is retried on a later write
+                System.err.println("Chronicle file sink roll error (" + name + "): " + e.getMessage());
+            }
+            if (length > buffer.remaining()) {
+                drainBuffer();
+            }
+            if (length > buffer.capacity()) {
+                // Larger than the whole buffer: write straight to the channel
+                writeFully(utf8Entry);
+                writeFully(ByteBuffer.wrap(LINE_SEPARATOR));
+            } else {
+                buffer.put(utf8Entry);
+                buffer.put(LINE_SEPARATOR);
+            }
+            fileSize += length;
+        } catch (IOException e) {
+            System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            drainBuffer();
+        } catch (IOException e) {
+            System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                drainBuffer();
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Chronicle file sink error (" + name + "): " + e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the path of the active log file.
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    /**
+     * Rolls the active file over immediately.
+     * 
+     * @return the path the active file was renamed to
+     */
+    public synchronized Path rollOver() throws IOException {
+        return roll(System.currentTimeMillis());
+    }
+    
+    private void rollIfNeeded(int incoming) throws IOException {
+        boolean bySize = maxFileSize > 0 && fileSize > 0 && fileSize + incoming > maxFileSize;
+        long now = System.currentTimeMillis();
+        boolean byTime = rollIntervalMillis > 0 && now >= nextRollTime;
+        if (byTime && fileSize == 0) {
+            // Nothing written during the last period: start the new one without an empty file
+            startPeriod(now);
+        } else if (bySize || byTime) {
+            roll(now);
+        }
+    }
+    
+    private Path roll(long now) throws IOException {
+        Path rolled;
+        try {
+            drainBuffer();
+            channel.force(false);
+            channel.close();
+            
+            rolled = nextRolledPath();
+            Files.move(file, rolled, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (!channel.isOpen()) {
+                // Also after a failed rename, so that later entries are not lost to a closed channel
+                openActiveFile(now);
+            }
+        }
+        applyRetention();
+        if (compression != null) {
+            compressor.compress(rolled, compression);
+        }
+        return rolled;
+    }
+    
+    private Path nextRolledPath() {
+        String timestamp = ROLL_TIMESTAMP.format(Instant.ofEpochMilli(periodStart));
+        Path directory = file.getParent();
+        Path candidate;
+        do {
+            rollSequence++;
+            candidate = directory.resolve(baseName + "-" + timestamp + "-" + rollSequence + extension);
+        } while (isTaken(candidate));
+        return candidate;
+    }
+    
+    private static boolean isTaken(Path candidate) {
+        if (Files.exists(candidate)) {
+            return true;
+        }
+        // A rolled file may already have been replaced by its compressed version
+        for (CompressionFormat format : CompressionFormat.values()) {
+            if (Files.exists(candidate.resolveSibling(candidate.getFileName() + format.getSuffix()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void openActiveFile(long now) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+                                   StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        startPeriod(now);
+    }
+    
+    private void startPeriod(long now) {
+        if (rollIntervalMillis > 0) {
+            // Periods are aligned to the epoch, e.g. daily files roll at 00:00 UTC
+            long start = now - Math.floorMod(now, rollIntervalMillis);
+            if (start != periodStart) {
+                rollSequence = 0;
+            }
+            periodStart = start;
+            nextRollTime = start + rollIntervalMillis;
+        } else {
+            periodStart = now;
+        }
+    }
+    
+    /**
+     * Deletes the oldest rolled files so that at most {@code maxHistory} remain.
+     * Age comes from the timestamp and sequence number in the file name, not from the
+     * modification time, which copies, restores and compression do not preserve.
+     */
+    private void applyRetention() throws IOException {
+        if (maxHistory <= 0) {
+            return;
+        }
+        List<Path> rolled = listRolledFiles();
+        if (rolled.size() <= maxHistory) {
+            return;
+        }
+        rolled.sort(Comparator
+            .comparing((Path path) -> rolledSuffix(path).substring(0, ROLL_TIMESTAMP_LENGTH))
+            .thenComparingLong(path -> rollSequenceOf(rolledSuffix(path))));
+        for (int i = 0; i < rolled.size() - maxHistory; i++) {
+            Files.deleteIfExists(rolled.get(i));
+        }
+    }
+    
+    /**
+     * Lists rolled files belonging to this sink.
+     */
+    List<Path> listRolledFiles() throws IOException {
+        List<Path> rolled = new ArrayList<>();
+        String prefix = baseName + "-";
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(file.getParent(), prefix + "*")) {
+            for (Path entry : entries) {
+                String fileName = entry.getFileName().toString();
+                if (isRolledFileName(fileName.substring(prefix.length()))) {
+                    rolled.add(entry);
+                }
+            }
+        }
+        return rolled;
+    }
+    
+    /**
+     * Checks a file name suffix against {@code yyyyMMdd-HHmmss-<n><extension>},
+     * optionally followed by a compression suffix.
+     */
+    boolean isRolledFileName(String suffix) {
+        int sequenceStart = ROLL_TIMESTAMP_LENGTH + 1;
+        if (suffix.length() <= sequenceStart || suffix.charAt(ROLL_TIMESTAMP_LENGTH) != '-') {
+            return false;
+        }
+        int end = sequenceStart;
+        while (end < suffix.length() && Character.isDigit(suffix.charAt(end))) {
+            end++;
+        }
+        if (end == sequenceStart || !suffix.startsWith(extension, end)) {
+            return false;
+        }
+        String rest = suffix.substring(end + extension.length());
+        if (rest.isEmpty()) {
+            return true;
+        }
+        for (CompressionFormat format : CompressionFormat.values()) {
+            if (rest.equals(format.getSuffix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String rolledSuffix(Path rolled) {
+        return rolled.getFileName().toString().substring(baseName.length() + 1);
+    }
+    
+    /**
+     * Gets the sequence number of a file name suffix already accepted by {@link #isRolledFileName}.
+     */
+    private static long rollSequenceOf(String suffix) {
+        int start = ROLL_TIMESTAMP_LENGTH + 1;
+        int end = start;
+        while (end < suffix.length() && Character.isDigit(suffix.charAt(end))) {
+            end++;
+        }
+        // Sequence numbers too long for a long still sort after every shorter one
+        return end - start > 18 ? Long.MAX_VALUE : Long.parseLong(suffix.substring(start, end));
+    }
+    
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+    
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+    
+    /**
+     * Builder for RollingFileSink.
+     */
+    public static class Builder {
+        private final Path file;
+        private String name = "file";
+        private long maxFileSize = 0L;
+        private Duration rollInterval;
+        private int maxHistory = 0;
+        private int bufferSize = 1024 * 1024;
+        private long flushIntervalMillis = 1000L;
+        private CompressionFormat compression;
+        private RolledFileCompressor compressor;
+        
+        private Builder(Path file) {
+            this.file = file;
+        }
+        
+        public static Builder create(Path file) {
+            return new Builder(file);
+        }
+        
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+        
+        /**
+         * Rolls over when the active file would exceed this many bytes (0 disables).
+         */
+        public Builder maxFileSize(long bytes) {
+            this.maxFileSize = bytes;
+            return this;
+        }
+        
+        /**
+         * Rolls over at every multiple of this interval since the epoch (null disables).
+         */
+        public Builder rollInterval(Duration interval) {
+            this.rollInterval = interval;
+            return this;
+        }
+        
+        /**
+         * Keeps at most this many rolled files (0 keeps all).
+         */
+        public Builder maxHistory(int files) {
+            this.maxHistory = files;
+            return this;
+        }
+        
+        /**
+         * Sets the size of the direct write buffer.
+         */
+        public Builder bufferSize(int bytes) {
+            this.bufferSize = bytes;
+            return this;
+        }
+        
+        /**
+         * Sets how often buffered entries are written out in the background (0 disables).
+         */
+        public Builder flushIntervalMillis(long millis) {
+            this.flushIntervalMillis = millis;
+            return this;
+        }
+        
+        /**
+         * Compresses rolled files in the background (null disables).
+         */
+        public Builder compression(CompressionFormat format) {
+            this.compression = format;
+            return this;
+        }
+        
+        /**
+         * Sets the compressor, and with it the CPU budget, used for rolled files.
+         * Defaults to {@link RolledFileCompressor#getDefault()}.
+         */
+        public Builder compressor(RolledFileCompressor compressor) {
+            this.compressor = compressor;
+            return this;
+        }
+        
+        public RollingFileSink build() {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+            }
+            return new RollingFileSink(this);
+        }
+    }
+}
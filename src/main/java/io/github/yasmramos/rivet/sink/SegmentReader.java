@@ -0,0 +1,86 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads entries back from segment files written by {@link MappedSegmentSink},
+ * including segments left behind by a crashed JVM.
+ * Reading a segment stops at the first record whose length was never published.
+ */
+public final class SegmentReader {
+    
+    private SegmentReader() {
+        // Utility class
+    }
+    
+    /**
+     * Reads every complete entry of a segment, in write order.
+     * 
+     * @param segment Segment file
+     * @param consumer Receives a read-only buffer with the UTF-8 bytes of each entry
+     * @return the number of entries read
+     */
+    public static int read(Path segment, Consumer<ByteBuffer> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < MappedSegmentSink.HEADER_SIZE || buffer.getLong(0) != MappedSegmentSink.MAGIC) {
+            throw new IOException("Not a Rivet log segment: " + segment);
+        }
+        int count = 0;
+        int position = MappedSegmentSink.HEADER_SIZE;
+        while (position + MappedSegmentSink.LENGTH_SIZE <= buffer.limit()) {
+            int length = (int) MappedSegmentSink.INT_HANDLE.getAcquire(buffer, position);
+            int payloadStart = position + MappedSegmentSink.LENGTH_SIZE;
+            if (length <= 0 || payloadStart + length > buffer.limit()) {
+                break;
+            }
+            ByteBuffer entry = buffer.duplicate();
+            entry.limit(payloadStart + length).position(payloadStart);
+            consumer.accept(entry.slice().asReadOnlyBuffer());
+            count++;
+            position += MappedSegmentSink.recordSize(length);
+        }
+        return count;
+    }
+    
+    /**
+     * Reads every complete entry of a segment as a String.
+     */
+    public static List<String> readLines(Path segment) throws IOException {
+        List<String> lines = new ArrayList<>();
+        read(segment, entry -> lines.add(StandardCharsets.UTF_8.decode(entry).toString()));
+        return lines;
+    }
+    
+    /**
+     * Lists the segment files of a sink in write order.
+     */
+    public static List<Path> listSegments(Path directory, String baseName) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, 
+                baseName + "-*" + MappedSegmentSink.SEGMENT_EXTENSION)) {
+            for (Path entry : entries) {
+                segments.add(entry);
+            }
+        }
+        // Segment numbers are zero-padded, so name order is write order
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,411 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes LogEntry objects into a compact binary stream, as an alternative to {@link JsonFormatter}.
+ * Read the stream back with {@link BinaryLogDecoder}.
+ * 
+ * A stream starts with a header: the magic bytes {@code RVTB}, a format version byte and
+ * the envelope fields (hostname, application, ...) of the writing process. Records follow,
+ * each starting with a tag byte:
+ * 
+ * - {@link #TAG_STRING}: defines an interned string: varint id, string
+ * - {@link #TAG_ENTRY}: level byte, zig-zag varint nanoseconds since the previous entry,
+ *   logger ref, varint thread id, thread name ref, message, context, tags and exception
+ * 
+ * A message is either text or, with deferred formatting, a template ref followed by the
+ * typed argument values; the decoder interpolates it only when the message is read.
+ * 
+ * Lengths and counts are unsigned varints. Logger names, thread names, context keys and tag
+ * names and values are written as refs to interned strings that are defined once per stream.
+ * Context values keep their type (long, double, boolean, string, map, list).
+ * 
+ * An exception is a presence byte followed by its class ref, message value, frame count and
+ * frame refs, a presence byte and the cause, then the suppressed count and exceptions.
+ * Frames are interned like other strings, so a repeated stack costs a few bytes per frame.
+ * Version 1 streams have no exception field.
+ * 
+ * An encoder belongs to a single stream and is not thread-safe.
+ */
+public class BinaryFormatter {
+    
+    static final byte[] MAGIC = {'R', 'V', 'T', 'B'};
+    static final int FORMAT_VERSION = 2;
+    
+    static final int TAG_STRING = 1;
+    static final int TAG_ENTRY = 2;
+    
+    static final int MESSAGE_NULL = 0;
+    static final int MESSAGE_TEXT = 1;
+    static final int MESSAGE_TEMPLATE = 2;
+    
+    static final int TYPE_NULL = 0;
+    static final int TYPE_STRING = 1;
+    static final int TYPE_LONG = 2;
+    static final int TYPE_DOUBLE = 3;
+    static final int TYPE_FLOAT = 4;
+    static final int TYPE_TRUE = 5;
+    static final int TYPE_FALSE = 6;
+    static final int TYPE_MAP = 7;
+    static final int TYPE_LIST = 8;
+    static final int TYPE_DECIMAL = 9;
+    
+    /** Ref values: 0 is null, 1 is an inline string, anything else an interned id. */
+    static final int REF_NULL = 0;
+    static final int REF_INLINE = 1;
+    static final int FIRST_ID = 2;
+    
+    private static final int MAX_INTERNED = 64 * 1024;
+    private static final int MAX_REUSABLE_BUFFER = 64 * 1024;
+    
+    private final Map<String, String> envelopeFields;
+    private final Map<String, Integer> interned = new HashMap<>();
+    private byte[] bytes = new byte[512];
+    private int length;
+    private ByteBuffer view = ByteBuffer.wrap(bytes);
+    private long previousNanos;
+    private final List<Throwable> throwables = new ArrayList<>();
+    private final List<String[]> throwableFrames = new ArrayList<>();
+    private int[] throwableRefs = new int[64];
+    private int throwableRefCount;
+    private int throwableCursor;
+    private int throwableRefCursor;
+    
+    public BinaryFormatter(RivetConfiguration configuration) {
+        this(new JsonFormatter(configuration).getEnvelopeFields());
+    }
+    
+    public BinaryFormatter(Map<String, String> envelopeFields) {
+        this.envelopeFields = envelopeFields;
+    }
+    
+    /**
+     * Starts a new stream: forgets interned strings and the previous timestamp,
+     * and encodes the stream header.
+     * The returned buffer is only valid until the next call.
+     */
+    public ByteBuffer header() {
+        interned.clear();
+        previousNanos = 0L;
+        begin();
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(FORMAT_VERSION);
+        writeVarint(envelopeFields.size());
+        for (Map.Entry<String, String> field : envelopeFields.entrySet()) {
+            writeString(field.getKey());
+            writeString(field.getValue());
+        }
+        return view();
+    }
+    
+    /**
+     * Encodes an entry, preceded by definitions of any strings it interns for the first time.
+     * {@link #header()} must have been called first. The returned buffer is only valid
+     * until the next call.
+     */
+    public ByteBuffer encode(LogEntry entry) {
+        begin();
+        // Interned strings are defined before the entry that first uses them
+        int templateRef = entry.isMessageDeferred() ? ref(entry.getMessageTemplate()) : REF_NULL;
+        int loggerRef = ref(entry.getLoggerName());
+        int threadNameRef = ref(entry.getThreadName());
+        int[] contextKeys = refs(entry.getContext().keySet());
+        int[] tagKeys = refs(entry.getTags().keySet());
+        int[] tagValues = refs(entry.getTags().values());
+        if (entry.getThrowable() != null) {
+            internThrowable(entry.getThrowable(), ThrowableRenderer.newSeenSet(), 0);
+        }
+        
+        writeByte(TAG_ENTRY);
+        writeByte(entry.getLevel().ordinal());
+        long nanos = epochNanos(entry.getTimestamp());
+        writeSignedVarint(nanos - previousNanos);
+        previousNanos = nanos;
+        writeRef(loggerRef, entry.getLoggerName());
+        writeVarint(entry.getThreadId());
+        writeRef(threadNameRef, entry.getThreadName());
+        writeMessage(entry, templateRef);
+        
+        writeVarint(contextKeys.length);
+        int i = 0;
+        for (Map.Entry<String, Object> field : entry.getContext().entrySet()) {
+            writeRef(contextKeys[i++], field.getKey());
+            writeValue(field.getValue());
+        }
+        writeVarint(tagKeys.length);
+        i = 0;
+        for (Map.Entry<String, String> tag : entry.getTags().entrySet()) {
+            writeRef(tagKeys[i], tag.getKey());
+            writeRef(tagValues[i], tag.getValue());
+            i++;
+        }
+        if (throwables.isEmpty()) {
+            writeByte(0);
+        } else {
+            writeByte(1);
+            writeThrowable();
+            throwables.clear();
+            throwableFrames.clear();
+            throwableRefCount = 0;
+            throwableCursor = 0;
+            throwableRefCursor = 0;
+        }
+        return view();
+    }
+    
+    /**
+     * Interns the strings of an exception tree before the entry is written, recording
+     * the refs and the shape of the tree in the order {@link #writeThrowable()} consumes them.
+     */
+    private void internThrowable(Throwable throwable, Set<Throwable> seen, int depth) {
+        seen.add(throwable);
+        String[] frames = ThrowableRenderer.frames(throwable);
+        throwables.add(throwable);
+        throwableFrames.add(frames);
+        addThrowableRef(ref(ThrowableRenderer.className(throwable)));
+        for (String frame : frames) {
+            addThrowableRef(ref(frame));
+        }
+        Throwable cause = ThrowableRenderer.nextCause(throwable, seen, depth);
+        addThrowableRef(cause != null ? 1 : 0);
+        if (cause != null) {
+            internThrowable(cause, seen, depth + 1);
+        }
+        List<Throwable> suppressed = ThrowableRenderer.nextSuppressed(throwable, seen, depth);
+        addThrowableRef(suppressed.size());
+        for (Throwable element : suppressed) {
+            internThrowable(element, seen, depth + 1);
+        }
+    }
+    
+    private void writeThrowable() {
+        Throwable throwable = throwables.get(throwableCursor);
+        String[] frames = throwableFrames.get(throwableCursor);
+        throwableCursor++;
+        writeRef(throwableRefs[throwableRefCursor++], ThrowableRenderer.className(throwable));
+        writeValue(throwable.getMessage());
+        writeVarint(frames.length);
+        for (String frame : frames) {
+            writeRef(throwableRefs[throwableRefCursor++], frame);
+        }
+        int hasCause = throwableRefs[throwableRefCursor++];
+        writeByte(hasCause);
+        if (hasCause != 0) {
+            writeThrowable();
+        }
+        int suppressed = throwableRefs[throwableRefCursor++];
+        writeVarint(suppressed);
+        for (int i = 0; i < suppressed; i++) {
+            writeThrowable();
+        }
+    }
+    
+    private void addThrowableRef(int value) {
+        if (throwableRefCount == throwableRefs.length) {
+            throwableRefs = Arrays.copyOf(throwableRefs, throwableRefCount * 2);
+        }
+        throwableRefs[throwableRefCount++] = value;
+    }
+    
+    private void writeMessage(LogEntry entry, int templateRef) {
+        if (entry.isMessageDeferred()) {
+            // Nanolog-style: template id plus raw values, no string building on the hot path
+            writeByte(MESSAGE_TEMPLATE);
+            writeRef(templateRef, entry.getMessageTemplate());
+            Object[] arguments = entry.getArguments();
+            writeVarint(arguments.length);
+            for (Object argument : arguments) {
+                writeValue(argument);
+            }
+        } else if (entry.getMessage() == null) {
+            writeByte(MESSAGE_NULL);
+        } else {
+            writeByte(MESSAGE_TEXT);
+            writeString(entry.getMessage());
+        }
+    }
+    
+    /**
+     * Gets the interned id of a string, defining it in the stream the first time.
+     * Returns {@link #REF_INLINE} once the table is full and {@link #REF_NULL} for null.
+     */
+    int ref(String value) {
+        if (value == null) {
+            return REF_NULL;
+        }
+        Integer id = interned.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (interned.size() >= MAX_INTERNED) {
+            return REF_INLINE;
+        }
+        int newId = interned.size() + FIRST_ID;
+        interned.put(value, newId);
+        writeByte(TAG_STRING);
+        writeVarint(newId);
+        writeString(value);
+        return newId;
+    }
+    
+    private int[] refs(Collection<String> values) {
+        int[] ids = new int[values.size()];
+        int i = 0;
+        for (String value : values) {
+            ids[i++] = ref(value);
+        }
+        return ids;
+    }
+    
+    void writeRef(int ref, String value) {
+        writeVarint(ref);
+        if (ref == REF_INLINE) {
+            writeString(value);
+        }
+    }
+    
+    /**
+     * Writes a typed value, with the same conversions {@link JsonWriter#value(Object)} applies.
+     */
+    void writeValue(Object value) {
+        if (value == null) {
+            writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            writeByte(TYPE_STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            writeByte(TYPE_LONG);
+            writeSignedVarint(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            writeByte(TYPE_DOUBLE);
+            writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            writeByte(TYPE_FLOAT);
+            writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            writeByte(TYPE_DECIMAL);
+            writeString(value.toString());
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Enum) {
+            writeByte(TYPE_STRING);
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            int count = 0;
+            for (Object element : map.values()) {
+                if (element != null) {
+                    count++;
+                }
+            }
+            writeByte(TYPE_MAP);
+            writeVarint(count);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() != null) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> elements = (Collection<?>) value;
+            writeByte(TYPE_LIST);
+            writeVarint(elements.size());
+            for (Object element : elements) {
+                writeValue(element);
+            }
+        } else if (value.getClass().isArray()) {
+            int count = java.lang.reflect.Array.getLength(value);
+            writeByte(TYPE_LIST);
+            writeVarint(count);
+            for (int i = 0; i < count; i++) {
+                writeValue(java.lang.reflect.Array.get(value, i));
+            }
+        } else {
+            writeByte(TYPE_STRING);
+            writeString(value.toString());
+        }
+    }
+    
+    void writeString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(utf8.length);
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, bytes, length, utf8.length);
+        length += utf8.length;
+    }
+    
+    void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) value;
+    }
+    
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+    
+    void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+    
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for (int shift = 0; shift < 32; shift += 8) {
+            bytes[length++] = (byte) (value >>> shift);
+        }
+    }
+    
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 0; shift < 64; shift += 8) {
+            bytes[length++] = (byte) (value >>> shift);
+        }
+    }
+    
+    static long epochNanos(Instant timestamp) {
+        return timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano();
+    }
+    
+    private void begin() {
+        if (bytes.length > MAX_REUSABLE_BUFFER) {
+            // Do not keep an oversized buffer alive after an unusually large entry
+            bytes = new byte[512];
+            view = ByteBuffer.wrap(bytes);
+        }
+        length = 0;
+    }
+    
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            view = ByteBuffer.wrap(bytes);
+        }
+    }
+    
+    private ByteBuffer view() {
+        view.clear().limit(length);
+        return view;
+    }
+}
@@ -0,0 +1,328 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads LogEntry objects back from a stream written by {@link BinaryFormatter}.
+ * 
+ * Several streams may be concatenated, e.g. when a process appends to an existing file;
+ * each new header replaces the envelope and starts a new string table.
+ * A record cut off by a crash ends the stream.
+ */
+public class BinaryLogDecoder implements Closeable {
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    private final InputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private Map<String, String> envelope = Collections.emptyMap();
+    private long previousNanos;
+    private int version;
+    private byte[] scratch = new byte[256];
+    private long position;
+    private long completeLength;
+    
+    public BinaryLogDecoder(InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024);
+        int first = this.in.read();
+        if (first != BinaryFormatter.MAGIC[0]) {
+            throw new IOException("Not a Rivet binary log");
+        }
+        position = 1;
+        readHeader();
+        completeLength = position;
+    }
+    
+    /**
+     * Reads the next entry.
+     * 
+     * @return the entry, or null at the end of the stream
+     */
+    public LogEntry next() throws IOException {
+        try {
+            while (true) {
+                int tag = in.read();
+                if (tag < 0) {
+                    return null;
+                }
+                position++;
+                if (tag == BinaryFormatter.MAGIC[0]) {
+                    readHeader();
+                    completeLength = position;
+                } else if (tag == BinaryFormatter.TAG_STRING) {
+                    int id = (int) readVarint();
+                    define(id, readString());
+                    completeLength = position;
+                } else if (tag == BinaryFormatter.TAG_ENTRY) {
+                    LogEntry entry = readEntry();
+                    completeLength = position;
+                    return entry;
+                } else {
+                    throw new IOException("Corrupt Rivet binary log: unknown record " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            // Last record was not completely written
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the number of bytes from the start of the stream to the end of the last
+     * complete record read, i.e. where a cut-off or corrupt tail begins.
+     */
+    public long getCompleteLength() {
+        return completeLength;
+    }
+    
+    /**
+     * Gets the envelope fields recorded by the process that wrote the current stream.
+     */
+    public Map<String, String> getEnvelope() {
+        return envelope;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    /**
+     * Reads a header whose first magic byte was already consumed.
+     */
+    private void readHeader() throws IOException {
+        for (int i = 1; i < BinaryFormatter.MAGIC.length; i++) {
+            if (readByte() != BinaryFormatter.MAGIC[i]) {
+                throw new IOException("Not a Rivet binary log");
+            }
+        }
+        int streamVersion = readByte();
+        if (streamVersion < 1 || streamVersion > BinaryFormatter.FORMAT_VERSION) {
+            throw new IOException("Unsupported Rivet binary log version: " + streamVersion);
+        }
+        version = streamVersion;
+        int count = (int) readVarint();
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            fields.put(readString(), readString());
+        }
+        envelope = Collections.unmodifiableMap(fields);
+        strings.clear();
+        previousNanos = 0L;
+    }
+    
+    private LogEntry readEntry() throws IOException {
+        LogLevel level = LEVELS[readByte()];
+        long nanos = previousNanos + readSignedVarint();
+        previousNanos = nanos;
+        String loggerName = readRef();
+        long threadId = readVarint();
+        String threadName = readRef();
+        LogEntry.Builder builder = new LogEntry.Builder();
+        readMessage(builder);
+        
+        int contextCount = (int) readVarint();
+        Map<String, Object> context = new LinkedHashMap<>();
+        for (int i = 0; i < contextCount; i++) {
+            String key = readRef();
+            Object value = readValue();
+            if (value != null) {
+                context.put(key, value);
+            }
+        }
+        int tagCount = (int) readVarint();
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < tagCount; i++) {
+            String key = readRef();
+            String value = readRef();
+            if (value != null) {
+                tags.put(key, value);
+            }
+        }
+        if (version >= 2 && readByte() != 0) {
+            builder.throwable(readThrowable());
+        }
+        
+        return builder
+            .timestamp(Instant.ofEpochSecond(0L, nanos))
+            .level(level)
+            .loggerName(loggerName)
+            .context(context)
+            .tags(tags)
+            .threadId(threadId)
+            .threadName(threadName)
+            .build();
+    }
+    
+    private void readMessage(LogEntry.Builder builder) throws IOException {
+        int kind = readByte();
+        switch (kind) {
+            case BinaryFormatter.MESSAGE_NULL:
+                return;
+            case BinaryFormatter.MESSAGE_TEXT:
+                builder.message(readString());
+                return;
+            case BinaryFormatter.MESSAGE_TEMPLATE: {
+                // Rendered lazily by LogEntry.getMessage(), i.e. only if the reader asks for it
+                String template = readRef();
+                Object[] arguments = new Object[(int) readVarint()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = readValue();
+                }
+                builder.messageTemplate(template, arguments);
+                return;
+            }
+            default:
+                throw new IOException("Corrupt Rivet binary log: unknown message kind " + kind);
+        }
+    }
+    
+    private Throwable readThrowable() throws IOException {
+        String className = readRef();
+        String message = (String) readValue();
+        String[] frames = new String[(int) readVarint()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = readRef();
+        }
+        Throwable cause = readByte() != 0 ? readThrowable() : null;
+        DecodedThrowable throwable = new DecodedThrowable(className, message, frames, cause);
+        int suppressed = (int) readVarint();
+        for (int i = 0; i < suppressed; i++) {
+            throwable.addSuppressed(readThrowable());
+        }
+        return throwable;
+    }
+    
+    private Object readValue() throws IOException {
+        int type = readByte();
+        switch (type) {
+            case BinaryFormatter.TYPE_NULL:
+                return null;
+            case BinaryFormatter.TYPE_STRING:
+                return readString();
+            case BinaryFormatter.TYPE_LONG:
+                return readSignedVarint();
+            case BinaryFormatter.TYPE_DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case BinaryFormatter.TYPE_FLOAT:
+                return Float.intBitsToFloat((int) readLong(4));
+            case BinaryFormatter.TYPE_TRUE:
+                return Boolean.TRUE;
+            case BinaryFormatter.TYPE_FALSE:
+                return Boolean.FALSE;
+            case BinaryFormatter.TYPE_DECIMAL:
+                return new BigDecimal(readString());
+            case BinaryFormatter.TYPE_MAP: {
+                int count = (int) readVarint();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    map.put(readString(), readValue());
+                }
+                return map;
+            }
+            case BinaryFormatter.TYPE_LIST: {
+                int count = (int) readVarint();
+                List<Object> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            }
+            default:
+                throw new IOException("Corrupt Rivet binary log: unknown value type " + type);
+        }
+    }
+    
+    private String readRef() throws IOException {
+        int ref = (int) readVarint();
+        if (ref == BinaryFormatter.REF_NULL) {
+            return null;
+        }
+        if (ref == BinaryFormatter.REF_INLINE) {
+            return readString();
+        }
+        int index = ref - BinaryFormatter.FIRST_ID;
+        if (index >= strings.size() || strings.get(index) == null) {
+            throw new IOException("Corrupt Rivet binary log: undefined string " + ref);
+        }
+        return strings.get(index);
+    }
+    
+    private void define(int id, String value) {
+        int index = id - BinaryFormatter.FIRST_ID;
+        while (strings.size() <= index) {
+            strings.add(null);
+        }
+        strings.set(index, value);
+    }
+    
+    private String readString() throws IOException {
+        int length = (int) readVarint();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            int count = in.read(scratch, read, length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+        position += length;
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private int readByte() throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException();
+        }
+        position++;
+        return value;
+    }
+    
+    private long readVarint() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt Rivet binary log: varint too long");
+    }
+    
+    private long readSignedVarint() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private long readLong() throws IOException {
+        return readLong(8);
+    }
+    
+    private long readLong(int size) throws IOException {
+        long value = 0L;
+        for (int i = 0; i < size; i++) {
+            value |= (long) readByte() << (8 * i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ExecutorService decorator that runs every task with the {@link ThreadContext}
+ * of the thread that submitted it. Created by {@link ContextPropagation#wrap(ExecutorService)}.
+ */
+final class ContextPropagatingExecutorService implements ExecutorService {
+    
+    private final ExecutorService delegate;
+    
+    ContextPropagatingExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(ContextPropagation.wrap(command));
+    }
+    
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(ContextPropagation.wrap(task));
+    }
+    
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return delegate.submit(ContextPropagation.wrap(task), result);
+    }
+    
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(ContextPropagation.wrap(task));
+    }
+    
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return delegate.invokeAll(wrapAll(tasks));
+    }
+    
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return delegate.invokeAll(wrapAll(tasks), timeout, unit);
+    }
+    
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) 
+            throws InterruptedException, ExecutionException {
+        return delegate.invokeAny(wrapAll(tasks));
+    }
+    
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.invokeAny(wrapAll(tasks), timeout, unit);
+    }
+    
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+    
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+    
+    private static <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        // All tasks share one snapshot of the submitting thread's context
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(ContextPropagation.wrap(task));
+        }
+        return wrapped;
+    }
+}
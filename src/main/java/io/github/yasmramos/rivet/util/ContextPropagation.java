@@ -0,0 +1,168 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Carries the {@link ThreadContext} of the submitting thread over to the thread that runs a task.
+ * 
+ * Each wrapper takes an O(1) {@link ThreadContext.Snapshot} when it is created (at submit time)
+ * and runs the task with it through {@link ThreadContext#run(ThreadContext.Snapshot, Runnable)},
+ * restoring the worker's own context afterwards.
+ * No map is copied: snapshots are immutable and shared.
+ * 
+ * Example usage:
+ * ExecutorService pool = ContextPropagation.wrap(Executors.newFixedThreadPool(8));
+ * ContextPropagation.supplyAsync(() -> load(id), pool)
+ *     .thenApply(ContextPropagation.wrapFunction(this::render));
+ */
+public final class ContextPropagation {
+    
+    private ContextPropagation() {
+        // Utility class
+    }
+    
+    /**
+     * Wraps a task to run with the current thread's context.
+     */
+    public static Runnable wrap(Runnable task) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return () -> ThreadContext.run(snapshot, task);
+    }
+    
+    /**
+     * Wraps a task to run with the current thread's context.
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return () -> ThreadContext.call(snapshot, task);
+    }
+    
+    /**
+     * Wraps a CompletableFuture stage to run with the current thread's context.
+     */
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> stage) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return () -> callUnchecked(snapshot, stage::get);
+    }
+    
+    /**
+     * Wraps a CompletableFuture stage to run with the current thread's context.
+     */
+    public static <T, R> Function<T, R> wrapFunction(Function<T, R> stage) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return value -> callUnchecked(snapshot, () -> stage.apply(value));
+    }
+    
+    /**
+     * Wraps a CompletableFuture stage to run with the current thread's context.
+     */
+    public static <T> Consumer<T> wrapConsumer(Consumer<T> stage) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return value -> ThreadContext.run(snapshot, () -> stage.accept(value));
+    }
+    
+    /**
+     * Wraps a CompletableFuture stage (e.g. for {@code handle} or {@code thenCombine})
+     * to run with the current thread's context.
+     */
+    public static <T, U, R> BiFunction<T, U, R> wrapBiFunction(BiFunction<T, U, R> stage) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return (first, second) -> callUnchecked(snapshot, () -> stage.apply(first, second));
+    }
+    
+    /**
+     * Wraps a CompletableFuture stage (e.g. for {@code whenComplete})
+     * to run with the current thread's context.
+     */
+    public static <T, U> BiConsumer<T, U> wrapBiConsumer(BiConsumer<T, U> stage) {
+        ThreadContext.Snapshot snapshot = ThreadContext.snapshot();
+        return (first, second) -> ThreadContext.run(snapshot, () -> stage.accept(first, second));
+    }
+    
+    /**
+     * Wraps an executor so that every task runs with the context of the thread that submitted it.
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ExecutorService) {
+            return wrap((ExecutorService) executor);
+        }
+        if (executor instanceof ContextExecutor) {
+            return executor;
+        }
+        return new ContextExecutor(executor);
+    }
+    
+    /**
+     * Wraps an executor service so that every task runs with the context of the thread that
+     * submitted it. Enables propagation once for a whole pool.
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        if (executor instanceof ContextPropagatingExecutorService) {
+            return executor;
+        }
+        return new ContextPropagatingExecutorService(executor);
+    }
+    
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier)}, with the current thread's context.
+     * Dependent stages need their own wrapper, e.g. {@link #wrapFunction(Function)}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, with the current thread's context.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(wrapSupplier(supplier), executor);
+    }
+    
+    /**
+     * Like {@link CompletableFuture#runAsync(Runnable, Executor)}, with the current thread's context.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+    
+    /**
+     * Calls a task that cannot throw checked exceptions with the snapshot installed.
+     */
+    private static <R> R callUnchecked(ThreadContext.Snapshot snapshot, Callable<R> task) {
+        try {
+            return ThreadContext.call(snapshot, task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Only reachable if a stage threw a checked exception sneakily
+            throw new CompletionException(e);
+        }
+    }
+    
+    /**
+     * Plain executor that wraps each task.
+     */
+    private static final class ContextExecutor implements Executor {
+        
+        private final Executor delegate;
+        
+        ContextExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.yasmramos.rivet.logging.util;
+
+/**
+ * Context and tags added for a block of code, removed again when the scope is closed.
+ * 
+ * Example usage:
+ * try (ContextScope scope = ThreadContext.openScope()
+ *         .put("requestId", requestId)
+ *         .putTag("component", "checkout")) {
+ *     Rivet.info().message("Handling request").log();
+ * }
+ */
+public final class ContextScope implements AutoCloseable {
+    
+    private final ThreadContext.Snapshot previous;
+    private final Thread owner;
+    private boolean closed;
+    
+    ContextScope(ThreadContext.Snapshot previous) {
+        this.previous = previous;
+        this.owner = Thread.currentThread();
+    }
+    
+    /**
+     * Adds a context value for the rest of the scope.
+     */
+    public ContextScope put(String key, Object value) {
+        ThreadContext.get().put(key, value);
+        return this;
+    }
+    
+    /**
+     * Adds a tag for the rest of the scope.
+     */
+    public ContextScope putTag(String tag, String value) {
+        ThreadContext.get().putTag(tag, value);
+        return this;
+    }
+    
+    /**
+     * Restores the context and tags the thread had when the scope was opened.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Context scope closed by a different thread than opened it");
+        }
+        closed = true;
+        ThreadContext.restore(previous);
+    }
+}
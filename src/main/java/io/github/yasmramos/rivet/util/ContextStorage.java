@@ -0,0 +1,83 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Where {@link ThreadContext} keeps the current thread's {@link ThreadContext.Snapshot}.
+ * 
+ * The default storage is a thread-local. On Java 21+ the multi-release jar selects a storage
+ * that binds snapshots to virtual threads through {@code ScopedValue} when it is available
+ * (see {@link ContextStorageProvider}).
+ */
+abstract class ContextStorage {
+    
+    /**
+     * Gets the current thread's snapshot, never null.
+     */
+    abstract ThreadContext.Snapshot get();
+    
+    /**
+     * Replaces the current thread's snapshot.
+     */
+    abstract void set(ThreadContext.Snapshot snapshot);
+    
+    /**
+     * Gets a short name of the storage, for diagnostics.
+     */
+    abstract String name();
+    
+    /**
+     * Runs a task with the snapshot installed, then reinstalls the previous one.
+     */
+    void run(ThreadContext.Snapshot snapshot, Runnable task) {
+        ThreadContext.Snapshot previous = get();
+        set(snapshot);
+        try {
+            task.run();
+        } finally {
+            set(previous);
+        }
+    }
+    
+    /**
+     * Calls a task with the snapshot installed, then reinstalls the previous one.
+     */
+    <V> V call(ThreadContext.Snapshot snapshot, Callable<V> task) throws Exception {
+        ThreadContext.Snapshot previous = get();
+        set(snapshot);
+        try {
+            return task.call();
+        } finally {
+            set(previous);
+        }
+    }
+    
+    /**
+     * Storage in a thread-local holding only the snapshot reference.
+     * Clearing the context removes the thread's value.
+     */
+    static final class ThreadLocalStorage extends ContextStorage {
+        
+        private final ThreadLocal<ThreadContext.Snapshot> local = new ThreadLocal<>();
+        
+        @Override
+        ThreadContext.Snapshot get() {
+            ThreadContext.Snapshot snapshot = local.get();
+            return snapshot != null ? snapshot : ThreadContext.Snapshot.EMPTY;
+        }
+        
+        @Override
+        void set(ThreadContext.Snapshot snapshot) {
+            if (snapshot == ThreadContext.Snapshot.EMPTY) {
+                local.remove();
+            } else {
+                local.set(snapshot);
+            }
+        }
+        
+        @Override
+        String name() {
+            return "thread-local";
+        }
+    }
+}
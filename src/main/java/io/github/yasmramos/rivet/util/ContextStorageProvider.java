@@ -0,0 +1,16 @@
+package io.github.yasmramos.rivet.logging.util;
+
+/**
+ * Selects the {@link ContextStorage} for this Java version.
+ * The multi-release jar replaces this class on Java 21+.
+ */
+final class ContextStorageProvider {
+    
+    private ContextStorageProvider() {
+        // Utility class
+    }
+    
+    static ContextStorage create() {
+        return new ContextStorage.ThreadLocalStorage();
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.yasmramos.rivet.logging.util;
+
+/**
+ * Exception read back from a binary log by {@link BinaryLogDecoder}.
+ * 
+ * The original exception class may not be on the reader's classpath, so this keeps its class
+ * name, message and rendered frames. Causes and suppressed exceptions are chained as usual.
+ */
+public class DecodedThrowable extends Throwable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final String className;
+    private final transient ThrowableRenderer.RenderedStack stack;
+    
+    public DecodedThrowable(String className, String message, String[] frames, Throwable cause) {
+        super(message, cause, true, false);
+        this.className = className;
+        this.stack = new ThrowableRenderer.RenderedStack(null, 0, frames);
+    }
+    
+    /**
+     * Gets the class name of the original exception.
+     */
+    public String getClassName() {
+        return className;
+    }
+    
+    /**
+     * Gets the rendered frames of the original exception. The array must not be modified.
+     */
+    public String[] getFrames() {
+        return stack.frames;
+    }
+    
+    ThrowableRenderer.RenderedStack getRenderedStack() {
+        return stack;
+    }
+    
+    @Override
+    public String toString() {
+        String message = getLocalizedMessage();
+        return message != null ? className + ": " + message : className;
+    }
+}
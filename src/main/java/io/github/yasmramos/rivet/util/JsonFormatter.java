@@ -1,5 +1,6 @@
 package io.github.yasmramos.rivet.logging.util;
 
+import io.github.yasmramos.rivet.logging.config.LogLevel;
 import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
 import io.github.yasmramos.rivet.logging.core.LogEntry;
 import org.json.JSONArray;
@@ -7,16 +8,31 @@ import org.json.JSONObject;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Formats LogEntry objects into JSON strings.
  * Provides customizable JSON output with timestamps, context, and tags.
+ * 
+ * {@link #format(LogEntry)} uses the streaming {@link JsonWriter} and does not need org.json;
+ * only {@link #formatToJson(LogEntry)} and {@link #formatBatch(Iterable)} build org.json objects.
  */
 public class JsonFormatter {
     
+    private static final int MAX_REUSABLE_BUFFER = 16 * 1024;
+    private static final String[] LEVEL_NAMES = levelNames();
+    private static final ThreadLocal<JsonWriter> COMPACT_WRITER = 
+        ThreadLocal.withInitial(() -> new JsonWriter(new StringBuilder(512), 0));
+    private static final ThreadLocal<JsonWriter> PRETTY_WRITER = 
+        ThreadLocal.withInitial(() -> new JsonWriter(new StringBuilder(1024), 2));
+    
+    private static volatile String cachedHostname;
+    
     private final RivetConfiguration configuration;
     private final DateTimeFormatter timestampFormatter;
+    private volatile Envelope envelope;
     
     public JsonFormatter(RivetConfiguration configuration) {
         this.configuration = configuration;
@@ -27,40 +43,95 @@ public class JsonFormatter {
      * Formats a LogEntry into a JSON string.
      */
     public String format(LogEntry entry) {
-        JSONObject json = new JSONObject();
+        return formatTo(entry).toString();
+    }
+    
+    /**
+     * Formats a LogEntry into a reusable per-thread buffer instead of building a JSON tree.
+     * The returned buffer is only valid until the next call on the same thread.
+     */
+    public CharSequence formatTo(LogEntry entry) {
+        Envelope staticFields = envelope();
+        JsonWriter json = writeEntry(entry, staticFields.prettyPrint);
         
-        // Add timestamp
-        json.put("@timestamp", timestampFormatter.format(entry.getTimestamp()));
+        // Add custom fields from configuration and metadata
+        if (staticFields.prettyPrint) {
+            for (Map.Entry<String, String> field : staticFields.fields.entrySet()) {
+                json.name(field.getKey()).value(field.getValue());
+            }
+        } else {
+            json.rawMembers(staticFields.fragment);
+        }
+        
+        return json.endObject().buffer();
+    }
+    
+    /**
+     * Formats a LogEntry with the given envelope fields instead of the configured ones,
+     * e.g. the fields recorded in a binary log by the process that wrote it.
+     * The returned buffer is only valid until the next call on the same thread.
+     */
+    public CharSequence formatTo(LogEntry entry, Map<String, String> envelopeFields) {
+        JsonWriter json = writeEntry(entry, configuration.isPrettyPrint());
+        for (Map.Entry<String, String> field : envelopeFields.entrySet()) {
+            json.name(field.getKey()).value(field.getValue());
+        }
+        return json.endObject().buffer();
+    }
+    
+    /**
+     * Gets the envelope fields (hostname, application, environment, version and metadata)
+     * added to every entry under the current configuration.
+     */
+    public Map<String, String> getEnvelopeFields() {
+        return envelope().fields;
+    }
+    
+    /**
+     * Writes every per-entry field into a reusable per-thread writer, leaving the object open.
+     */
+    private JsonWriter writeEntry(LogEntry entry, boolean prettyPrint) {
+        ThreadLocal<JsonWriter> writers = prettyPrint ? PRETTY_WRITER : COMPACT_WRITER;
+        JsonWriter json = writers.get();
+        if (json.buffer().capacity() > MAX_REUSABLE_BUFFER) {
+            // Do not keep an oversized buffer alive after an unusually large entry
+            writers.remove();
+            json = writers.get();
+        }
+        json.reset().beginObject();
+        
+        // Add timestamp, formatted straight into the buffer
+        StringBuilder timestamp = json.name("@timestamp").rawValue().append('"');
+        timestampFormatter.formatTo(entry.getTimestamp(), timestamp);
+        timestamp.append('"');
         
         // Add log level and logger information
-        json.put("level", entry.getLevel().name().toLowerCase());
-        json.put("logger", entry.getLoggerName());
-        json.put("message", entry.getMessage());
+        json.name("level").value(LEVEL_NAMES[entry.getLevel().ordinal()]);
+        json.name("logger").value(entry.getLoggerName());
+        json.name("message").value(entry.getMessage());
         
         // Add thread information
-        JSONObject threadInfo = new JSONObject();
-        threadInfo.put("id", entry.getThreadId());
-        threadInfo.put("name", entry.getThreadName());
-        json.put("thread", threadInfo);
+        json.name("thread").beginObject()
+            .name("id").value(entry.getThreadId())
+            .name("name").value(entry.getThreadName())
+            .endObject();
         
         // Add context if present
         if (!entry.getContext().isEmpty()) {
-            json.put("context", new JSONObject(entry.getContext()));
+            json.name("context").value(entry.getContext());
         }
         
         // Add tags if present
         if (!entry.getTags().isEmpty()) {
-            json.put("tags", new JSONObject(entry.getTags()));
+            json.name("tags").value(entry.getTags());
         }
         
-        // Add custom fields from configuration
-        addCustomFields(json, entry);
-        
-        // Add metadata
-        json.put("chronicle.version", "1.0.0");
-        json.put("chronicle.formatter", "json");
-        
-        return json.toString(configuration.isPrettyPrint() ? 2 : 0);
+        // Add exception if present, with causes and suppressed exceptions
+        if (entry.getThrowable() != null) {
+            json.name("exception");
+            ThrowableRenderer.write(json, entry.getThrowable());
+        }
+        return json;
     }
     
     /**
@@ -107,6 +178,11 @@ public class JsonFormatter {
             json.put("tags", new JSONObject(entry.getTags()));
         }
         
+        // Add exception if present
+        if (entry.getThrowable() != null) {
+            json.put("exception", new JSONObject(ThrowableRenderer.toMap(entry.getThrowable())));
+        }
+        
         // Add metadata
         json.put("chronicle.version", "1.0.0");
         json.put("chronicle.formatter", "json");
@@ -114,33 +190,93 @@ public class JsonFormatter {
         return json;
     }
     
-    private void addCustomFields(JSONObject json, LogEntry entry) {
-        // Add hostname if configured
-        if (configuration.isIncludeHostname()) {
-            json.put("hostname", getHostname());
-        }
-        
-        // Add application name if configured
-        if (configuration.getApplicationName() != null) {
-            json.put("application", configuration.getApplicationName());
+    /**
+     * Gets the static envelope fields, rebuilding them only when the configuration changed.
+     */
+    private Envelope envelope() {
+        Envelope current = envelope;
+        int version = configuration.getVersion();
+        if (current == null || current.version != version) {
+            current = new Envelope(configuration, version);
+            envelope = current;
         }
-        
-        // Add environment if configured
-        if (configuration.getEnvironment() != null) {
-            json.put("environment", configuration.getEnvironment());
+        return current;
+    }
+    
+    /**
+     * Gets the local hostname. The lookup can block on DNS, so it is done once per JVM.
+     */
+    private static String getHostname() {
+        String hostname = cachedHostname;
+        if (hostname == null) {
+            try {
+                hostname = java.net.InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                hostname = "unknown";
+            }
+            cachedHostname = hostname;
         }
-        
-        // Add version if configured
-        if (configuration.getApplicationVersion() != null) {
-            json.put("version", configuration.getApplicationVersion());
+        return hostname;
+    }
+    
+    private static String[] levelNames() {
+        LogLevel[] levels = LogLevel.values();
+        String[] names = new String[levels.length];
+        for (LogLevel level : levels) {
+            names[level.ordinal()] = level.name().toLowerCase();
         }
+        return names;
     }
     
-    private String getHostname() {
-        try {
-            return java.net.InetAddress.getLocalHost().getHostName();
-        } catch (Exception e) {
-            return "unknown";
+    /**
+     * Fields that are the same for every entry of a configuration version:
+     * hostname, application, environment, version and chronicle metadata.
+     * Kept both as values and as a pre-serialized compact JSON fragment.
+     */
+    private static final class Envelope {
+        
+        final int version;
+        final boolean prettyPrint;
+        final Map<String, String> fields;
+        final String fragment;
+        
+        Envelope(RivetConfiguration configuration, int version) {
+            this.version = version;
+            this.prettyPrint = configuration.isPrettyPrint();
+            
+            Map<String, String> values = new LinkedHashMap<>();
+            // Add hostname if configured
+            if (configuration.isIncludeHostname()) {
+                values.put("hostname", getHostname());
+            }
+            
+            // Add application name if configured
+            if (configuration.getApplicationName() != null) {
+                values.put("application", configuration.getApplicationName());
+            }
+            
+            // Add environment if configured
+            if (configuration.getEnvironment() != null) {
+                values.put("environment", configuration.getEnvironment());
+            }
+            
+            // Add version if configured
+            if (configuration.getApplicationVersion() != null) {
+                values.put("version", configuration.getApplicationVersion());
+            }
+            
+            // Add metadata
+            values.put("chronicle.version", "1.0.0");
+            values.put("chronicle.formatter", "json");
+            this.fields = Collections.unmodifiableMap(values);
+            
+            JsonWriter serialized = new JsonWriter(new StringBuilder(), 0).beginObject();
+            for (Map.Entry<String, String> field : values.entrySet()) {
+                serialized.name(field.getKey()).value(field.getValue());
+            }
+            StringBuilder members = serialized.endObject().buffer();
+            // Keep only the members, without the surrounding braces
+            this.fragment = members.substring(1, members.length() - 1);
         }
     }
     
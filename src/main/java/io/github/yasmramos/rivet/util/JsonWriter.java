@@ -0,0 +1,475 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming JSON writer that appends directly into a reusable {@link StringBuilder}.
+ * 
+ * Produces the same text as org.json for the values Rivet logs: strings are escaped
+ * with the same rules as {@code JSONObject.quote}, decimal numbers drop trailing zeros,
+ * and indented output uses org.json's layout. Members of objects written from their
+ * getters are sorted by name instead of following org.json's HashMap order. Plain ASCII
+ * strings take a fast path that copies them without per-character escaping.
+ */
+public final class JsonWriter {
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final StringBuilder out;
+    private final int indentFactor;
+    private boolean[] needsComma = new boolean[8];
+    private int depth;
+    private boolean afterName;
+    private Set<Object> beansInProgress;
+    
+    public JsonWriter(StringBuilder out, int indentFactor) {
+        this.out = out;
+        this.indentFactor = indentFactor;
+    }
+    
+    /**
+     * Clears the buffer so the writer can be reused for a new document.
+     */
+    public JsonWriter reset() {
+        out.setLength(0);
+        depth = 0;
+        needsComma[0] = false;
+        afterName = false;
+        return this;
+    }
+    
+    /**
+     * Gets the underlying buffer.
+     */
+    public StringBuilder buffer() {
+        return out;
+    }
+    
+    /**
+     * Checks whether the writer produces indented output.
+     */
+    public boolean isIndented() {
+        return indentFactor > 0;
+    }
+    
+    public JsonWriter beginObject() {
+        return begin('{');
+    }
+    
+    public JsonWriter endObject() {
+        return end('}');
+    }
+    
+    public JsonWriter beginArray() {
+        return begin('[');
+    }
+    
+    public JsonWriter endArray() {
+        return end(']');
+    }
+    
+    /**
+     * Writes an object member name; the value must follow.
+     */
+    public JsonWriter name(String name) {
+        separator();
+        writeString(name);
+        out.append(':');
+        if (indentFactor > 0) {
+            out.append(' ');
+        }
+        afterName = true;
+        return this;
+    }
+    
+    /**
+     * Appends pre-serialized compact members (e.g. {@code "a":"b","c":1}) to the current object.
+     */
+    public JsonWriter rawMembers(CharSequence members) {
+        if (members.length() == 0) {
+            return this;
+        }
+        separator();
+        out.append(members);
+        return this;
+    }
+    
+    /**
+     * Starts a value that the caller appends to the returned buffer already serialized,
+     * e.g. a quoted timestamp formatted straight into the buffer.
+     */
+    public StringBuilder rawValue() {
+        valueSeparator();
+        return out;
+    }
+    
+    public JsonWriter value(String value) {
+        valueSeparator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+    
+    public JsonWriter value(long value) {
+        valueSeparator();
+        out.append(value);
+        return this;
+    }
+    
+    public JsonWriter value(double value) {
+        valueSeparator();
+        writeDouble(value);
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) {
+        valueSeparator();
+        out.append(value);
+        return this;
+    }
+    
+    /**
+     * Writes any value, dispatching on its runtime type.
+     * Maps become objects, collections and arrays become arrays, JDK types are written as
+     * their {@code toString()}, and other objects as an object of their getters, as
+     * org.json's {@code JSONObject.wrap} does.
+     */
+    public JsonWriter value(Object value) {
+        if (value == null) {
+            return value((String) null);
+        }
+        if (value instanceof String) {
+            return value((String) value);
+        }
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        }
+        if (value instanceof Double) {
+            return value(((Double) value).doubleValue());
+        }
+        if (value instanceof Float) {
+            float number = (Float) value;
+            valueSeparator();
+            if (Float.isNaN(number) || Float.isInfinite(number)) {
+                writeString(Float.toString(number));
+            } else {
+                writeNumber(Float.toString(number));
+            }
+            return this;
+        }
+        if (value instanceof Number) {
+            valueSeparator();
+            writeNumber(value.toString());
+            return this;
+        }
+        if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        }
+        if (value instanceof Enum) {
+            return value(((Enum<?>) value).name());
+        }
+        if (value instanceof PersistentArrayMap) {
+            // Indexed access avoids allocating an entry per member
+            PersistentArrayMap<?> map = (PersistentArrayMap<?>) value;
+            beginObject();
+            for (int i = 0; i < map.size(); i++) {
+                name(map.keyAt(i));
+                value(map.valueAt(i));
+            }
+            return endObject();
+        }
+        if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    name(String.valueOf(entry.getKey()));
+                    value(entry.getValue());
+                }
+            }
+            return endObject();
+        }
+        if (value instanceof Collection) {
+            beginArray();
+            for (Object element : (Collection<?>) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        if (value.getClass().isArray()) {
+            beginArray();
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                value(Array.get(value, i));
+            }
+            return endArray();
+        }
+        if (isJdkType(value.getClass())) {
+            return value(value.toString());
+        }
+        return bean(value);
+    }
+    
+    /**
+     * Writes an object with one member per public getter, following org.json's bean rules
+     * (apart from its annotations): {@code getX()}/{@code isX()} become {@code x}, null
+     * results and getters that throw are skipped. Members are sorted by name, so the output is
+ * the same on every run, where org.json follows HashMap order.
+     * A bean that refers back to itself is written as null where org.json would throw.
+     */
+    private JsonWriter bean(Object bean) {
+        if (beansInProgress == null) {
+            beansInProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+        if (!beansInProgress.add(bean)) {
+            return value((String) null);
+        }
+        try {
+            Map<String, Object> members = new LinkedHashMap<>();
+            for (Getter getter : GETTERS.get(bean.getClass())) {
+                try {
+                    Object result = getter.method.invoke(bean);
+                    if (result != null) {
+                        members.put(getter.name, result);
+                    }
+                } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                    // Skipped like org.json does, e.g. for a public getter of a private class
+                }
+            }
+            return value(members);
+        } finally {
+            beansInProgress.remove(bean);
+        }
+    }
+    
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return type.getClassLoader() == null || name.startsWith("java.") || name.startsWith("javax.");
+    }
+    
+    private static final ClassValue<Getter[]> GETTERS = new ClassValue<Getter[]>() {
+        @Override
+        protected Getter[] computeValue(Class<?> type) {
+            List<Getter> getters = new ArrayList<>();
+            for (Method method : type.getMethods()) {
+                String name = getterName(method);
+                if (name != null) {
+                    getters.add(new Getter(name, method));
+                }
+            }
+            // getMethods() has no fixed order; when getX() and isX() share a name, isX() wins
+            getters.sort(Comparator.comparing((Getter getter) -> getter.name)
+                .thenComparing(getter -> getter.method.getName()));
+            return getters.toArray(new Getter[0]);
+        }
+    };
+    
+    private static String getterName(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0 
+                || method.isBridge() || method.getReturnType() == Void.TYPE) {
+            return null;
+        }
+        String name = method.getName();
+        if ("getClass".equals(name) || "getDeclaringClass".equals(name)) {
+            return null;
+        }
+        String key;
+        if (name.startsWith("get") && name.length() > 3) {
+            key = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            key = name.substring(2);
+        } else {
+            return null;
+        }
+        if (Character.isLowerCase(key.charAt(0))) {
+            return null;
+        }
+        if (key.length() == 1) {
+            return key.toLowerCase(Locale.ROOT);
+        }
+        if (!Character.isUpperCase(key.charAt(1))) {
+            return key.substring(0, 1).toLowerCase(Locale.ROOT) + key.substring(1);
+        }
+        return key;
+    }
+    
+    private static final class Getter {
+        
+        final String name;
+        final Method method;
+        
+        Getter(String name, Method method) {
+            this.name = name;
+            this.method = method;
+        }
+    }
+    
+    /**
+     * Writes a quoted, escaped JSON string.
+     */
+    public void writeString(String value) {
+        out.append('"');
+        int length = value.length();
+        int i = 0;
+        // ASCII fast path: copy the longest run that needs no escaping in one call
+        while (i < length && !needsEscape(value.charAt(i), i > 0 ? value.charAt(i - 1) : 0)) {
+            i++;
+        }
+        out.append(value, 0, i);
+        if (i < length) {
+            writeEscaped(value, i);
+        }
+        out.append('"');
+    }
+    
+    private void writeEscaped(String value, int start) {
+        char previous = start > 0 ? value.charAt(start - 1) : 0;
+        int length = value.length();
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    out.append('\\').append(c);
+                    break;
+                case '/':
+                    if (previous == '<') {
+                        out.append('\\');
+                    }
+                    out.append(c);
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    if (c < ' ' || (c >= 0x80 && c < 0xa0) || (c >= 0x2000 && c < 0x2100)) {
+                        out.append("\\u")
+                            .append(HEX[(c >> 12) & 0xF])
+                            .append(HEX[(c >> 8) & 0xF])
+                            .append(HEX[(c >> 4) & 0xF])
+                            .append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+            previous = c;
+        }
+    }
+    
+    private static boolean needsEscape(char c, char previous) {
+        if (c >= ' ' && c < 0x7f) {
+            return c == '"' || c == '\\' || (c == '/' && previous == '<');
+        }
+        return true;
+    }
+    
+    private void writeDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // Not representable as a JSON number
+            writeString(Double.toString(value));
+            return;
+        }
+        writeNumber(Double.toString(value));
+    }
+    
+    /**
+     * Writes a number, dropping trailing zeros of the fraction like org.json does.
+     */
+    private void writeNumber(String number) {
+        if (number.indexOf('.') > 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            int end = number.length();
+            while (number.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (number.charAt(end - 1) == '.') {
+                end--;
+            }
+            out.append(number, 0, end);
+        } else {
+            out.append(number);
+        }
+    }
+    
+    private JsonWriter begin(char open) {
+        // An object or array is itself a value: after a member name or as an array element
+        valueSeparator();
+        out.append(open);
+        depth++;
+        if (depth == needsComma.length) {
+            needsComma = Arrays.copyOf(needsComma, depth * 2);
+        }
+        needsComma[depth] = false;
+        return this;
+    }
+    
+    private JsonWriter end(char close) {
+        boolean empty = !needsComma[depth];
+        depth--;
+        if (!empty) {
+            newline();
+        }
+        out.append(close);
+        needsComma[depth] = true;
+        return this;
+    }
+    
+    /**
+     * Separates members/elements: a comma after the previous one, then a newline and indent.
+     */
+    private void separator() {
+        if (needsComma[depth]) {
+            out.append(',');
+        }
+        needsComma[depth] = true;
+        newline();
+    }
+    
+    /**
+     * Values inside arrays need a separator; values after a member name do not.
+     */
+    private void valueSeparator() {
+        if (afterName) {
+            afterName = false;
+        } else if (depth > 0) {
+            separator();
+        }
+    }
+    
+    private void newline() {
+        if (indentFactor <= 0) {
+            return;
+        }
+        out.append('\n');
+        for (int i = 0, spaces = depth * indentFactor; i < spaces; i++) {
+            out.append(' ');
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Message template parsed once into literal segments and argument placeholders.
+ * 
+ * Supported placeholders:
+ * <ul>
+ *   <li>{@code {0}}, {@code {1}}, ... - the argument at that index</li>
+ *   <li>{@code {}} - the next argument, as in SLF4J</li>
+ *   <li>{@code {name}} - the next argument; repeating a name reuses the same argument</li>
+ * </ul>
+ * Placeholders without a matching argument are rendered as written.
+ * 
+ * SLF4J format strings are compiled with {@link #ofSlf4j(String)} instead, which follows
+ * SLF4J's {@code MessageFormatter}: only {@code {}} is a placeholder, {@code \{}} is a
+ * literal {@code {}} and {@code \\{}} a backslash followed by a placeholder.
+ * 
+ * Compiled templates are kept in a bounded cache keyed by the identity of the template
+ * string, so constant messages are parsed once and then only rendered.
+ */
+public final class MessageTemplate {
+    
+    private static final int CACHE_SIZE = 1024;
+    private static final int MAX_REUSABLE_BUFFER = 8192;
+    private static final int MAX_INDEX_DIGITS = 6;
+    private static final int ESCAPED = -1;
+    private static final MessageTemplate[] CACHE = new MessageTemplate[CACHE_SIZE];
+    private static final MessageTemplate[] SLF4J_CACHE = new MessageTemplate[CACHE_SIZE];
+    private static final ThreadLocal<StringBuilder> BUFFER = 
+        ThreadLocal.withInitial(() -> new StringBuilder(256));
+    
+    private final String source;
+    private final String[] literals;
+    private final int[] argIndexes;
+    private final String[] placeholders;
+    private final int argumentCount;
+    /** For SLF4J templates, where each literal starts in the source; null otherwise. */
+    private final int[] literalStarts;
+    private final boolean rivetCompatible;
+    
+    private MessageTemplate(String source, String[] literals, int[] argIndexes, 
+                            String[] placeholders, int argumentCount) {
+        this(source, literals, argIndexes, placeholders, argumentCount, null, true);
+    }
+    
+    private MessageTemplate(String source, String[] literals, int[] argIndexes, String[] placeholders, 
+                            int argumentCount, int[] literalStarts, boolean rivetCompatible) {
+        this.source = source;
+        this.literals = literals;
+        this.argIndexes = argIndexes;
+        this.placeholders = placeholders;
+        this.argumentCount = argumentCount;
+        this.literalStarts = literalStarts;
+        this.rivetCompatible = rivetCompatible;
+    }
+    
+    /**
+     * Gets the compiled template for a message, compiling and caching it on first use.
+     */
+    public static MessageTemplate of(String message) {
+        int slot = System.identityHashCode(message) & (CACHE_SIZE - 1);
+        MessageTemplate cached = CACHE[slot];
+        if (cached != null && cached.source == message) {
+            return cached;
+        }
+        // Templates are immutable, so a racy publication to the cache is safe
+        MessageTemplate compiled = compile(message);
+        CACHE[slot] = compiled;
+        return compiled;
+    }
+    
+    /**
+     * Gets the compiled template for an SLF4J format string, compiling and caching it on first use.
+     */
+    public static MessageTemplate ofSlf4j(String format) {
+        int slot = System.identityHashCode(format) & (CACHE_SIZE - 1);
+        MessageTemplate cached = SLF4J_CACHE[slot];
+        if (cached != null && cached.source == format) {
+            return cached;
+        }
+        MessageTemplate compiled = compileSlf4j(format);
+        SLF4J_CACHE[slot] = compiled;
+        return compiled;
+    }
+    
+    /**
+     * Parses an SLF4J format string into a template without caching it.
+     * Only {@code {}} is a placeholder; a preceding backslash escapes it, and a doubled
+     * backslash renders one backslash before the argument.
+     */
+    public static MessageTemplate compileSlf4j(String format) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        int nextArgument = 0;
+        int literalStart = 0;
+        int open;
+        while ((open = format.indexOf("{}", literalStart)) >= 0) {
+            starts.add(literalStart);
+            boolean escaped = open > 0 && format.charAt(open - 1) == '\\';
+            if (escaped && !(open > 1 && format.charAt(open - 2) == '\\')) {
+                // Renders as '{', and the '}' starts the next literal, as in MessageFormatter
+                literals.add(format.substring(literalStart, open - 1));
+                indexes.add(ESCAPED);
+                placeholders.add("{");
+                literalStart = open + 1;
+            } else {
+                // A doubled backslash keeps one of them
+                literals.add(format.substring(literalStart, escaped ? open - 1 : open));
+                indexes.add(nextArgument++);
+                placeholders.add("{}");
+                literalStart = open + 2;
+            }
+        }
+        literals.add(format.substring(literalStart));
+        
+        int[] argIndexes = new int[indexes.size()];
+        int[] literalStarts = new int[starts.size()];
+        for (int i = 0; i < argIndexes.length; i++) {
+            argIndexes[i] = indexes.get(i);
+            literalStarts[i] = starts.get(i);
+        }
+        // Rivet's syntax reads the format the same way when it finds the same placeholders
+        MessageTemplate rivet = compile(format);
+        boolean rivetCompatible = Arrays.equals(rivet.argIndexes, argIndexes) 
+            && Arrays.equals(rivet.literals, literals.toArray(new String[0]));
+        return new MessageTemplate(format, literals.toArray(new String[0]), argIndexes,
+                                   placeholders.toArray(new String[0]), nextArgument, literalStarts, rivetCompatible);
+    }
+    
+    /**
+     * Parses a message into a template without caching it.
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int nextSequential = 0;
+        int maxIndex = -1;
+        int literalStart = 0;
+        int length = message.length();
+        
+        for (int i = 0; i < length; i++) {
+            if (message.charAt(i) != '{') {
+                continue;
+            }
+            int close = placeholderEnd(message, i);
+            if (close < 0) {
+                continue;
+            }
+            String body = message.substring(i + 1, close);
+            int index;
+            if (body.isEmpty()) {
+                index = nextSequential++;
+            } else if (Character.isDigit(body.charAt(0))) {
+                index = Integer.parseInt(body);
+            } else {
+                int known = names.indexOf(body);
+                if (known >= 0) {
+                    index = indexes.get(placeholderOfName(placeholders, body));
+                } else {
+                    names.add(body);
+                    index = nextSequential++;
+                }
+            }
+            literals.add(message.substring(literalStart, i));
+            indexes.add(index);
+            placeholders.add(message.substring(i, close + 1));
+            maxIndex = Math.max(maxIndex, index);
+            literalStart = close + 1;
+            i = close;
+        }
+        literals.add(message.substring(literalStart));
+        
+        int[] argIndexes = new int[indexes.size()];
+        for (int i = 0; i < argIndexes.length; i++) {
+            argIndexes[i] = indexes.get(i);
+        }
+        return new MessageTemplate(message, literals.toArray(new String[0]), argIndexes,
+                                   placeholders.toArray(new String[0]), maxIndex + 1);
+    }
+    
+    /**
+     * Renders the template with the given arguments.
+     */
+    public String format(Object[] args) {
+        if (argIndexes.length == 0 || args == null || args.length == 0) {
+            return source;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        formatTo(buffer, args);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_REUSABLE_BUFFER) {
+            BUFFER.set(new StringBuilder(256));
+        }
+        return result;
+    }
+    
+    /**
+     * Renders the template with the given arguments into the supplied buffer.
+     */
+    public void formatTo(StringBuilder buffer, Object[] args) {
+        int argCount = args != null ? args.length : 0;
+        if (literalStarts != null) {
+            formatSlf4jTo(buffer, args, argCount);
+            return;
+        }
+        for (int i = 0; i < argIndexes.length; i++) {
+            buffer.append(literals[i]);
+            int index = argIndexes[i];
+            if (index < argCount) {
+                appendArgument(buffer, args[index]);
+            } else {
+                buffer.append(placeholders[i]);
+            }
+        }
+        buffer.append(literals[argIndexes.length]);
+    }
+    
+    /**
+     * Renders like SLF4J: once the arguments run out, the rest of the format is copied as
+     * written, including escapes and placeholders.
+     */
+    private void formatSlf4jTo(StringBuilder buffer, Object[] args, int argCount) {
+        int used = 0;
+        for (int i = 0; i < argIndexes.length; i++) {
+            if (used == argCount) {
+                buffer.append(source, literalStarts[i], source.length());
+                return;
+            }
+            buffer.append(literals[i]);
+            int index = argIndexes[i];
+            if (index == ESCAPED) {
+                buffer.append(placeholders[i]);
+            } else {
+                appendArgument(buffer, args[index]);
+                used++;
+            }
+        }
+        buffer.append(literals[argIndexes.length]);
+    }
+    
+    /**
+     * Renders one argument. Arrays are shown by content, as SLF4J does, instead of by identity.
+     */
+    public static void appendArgument(StringBuilder buffer, Object arg) {
+        if (arg == null || !arg.getClass().isArray()) {
+            buffer.append(arg);
+        } else if (arg instanceof Object[]) {
+            buffer.append(Arrays.deepToString((Object[]) arg));
+        } else if (arg instanceof int[]) {
+            buffer.append(Arrays.toString((int[]) arg));
+        } else if (arg instanceof long[]) {
+            buffer.append(Arrays.toString((long[]) arg));
+        } else if (arg instanceof byte[]) {
+            buffer.append(Arrays.toString((byte[]) arg));
+        } else if (arg instanceof char[]) {
+            buffer.append(Arrays.toString((char[]) arg));
+        } else if (arg instanceof short[]) {
+            buffer.append(Arrays.toString((short[]) arg));
+        } else if (arg instanceof boolean[]) {
+            buffer.append(Arrays.toString((boolean[]) arg));
+        } else if (arg instanceof float[]) {
+            buffer.append(Arrays.toString((float[]) arg));
+        } else {
+            buffer.append(Arrays.toString((double[]) arg));
+        }
+    }
+    
+    /**
+     * Gets the original template string.
+     */
+    public String getSource() {
+        return source;
+    }
+    
+    /**
+     * Gets the number of placeholders in the template.
+     */
+    public int getPlaceholderCount() {
+        return literalStarts != null ? argumentCount : argIndexes.length;
+    }
+    
+    /**
+     * Checks whether a Rivet template of the same string renders exactly like this one,
+     * which always holds for templates compiled with Rivet's syntax. An SLF4J format with
+     * {@code {name}}, {@code {0}} or escaped braces renders differently.
+     */
+    public boolean isRivetCompatible() {
+        return rivetCompatible;
+    }
+    
+    /**
+     * Gets the number of arguments the template refers to (highest argument index + 1).
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+    
+    /**
+     * Returns the index of the closing brace if a placeholder starts at {@code open}, otherwise -1.
+     * A placeholder body is empty, up to six digits, or an identifier made of letters, digits, '_', '.' and '-'.
+     */
+    private static int placeholderEnd(String message, int open) {
+        int length = message.length();
+        int i = open + 1;
+        if (i < length && message.charAt(i) == '}') {
+            return i;
+        }
+        if (i >= length) {
+            return -1;
+        }
+        char first = message.charAt(i);
+        boolean numeric = Character.isDigit(first);
+        if (!numeric && !Character.isLetter(first) && first != '_') {
+            return -1;
+        }
+        for (i++; i < length; i++) {
+            char c = message.charAt(i);
+            if (c == '}') {
+                return i;
+            }
+            if (numeric && i - open > MAX_INDEX_DIGITS) {
+                return -1;
+            }
+            boolean valid = numeric 
+                ? Character.isDigit(c) 
+                : Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+            if (!valid) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
+    private static int placeholderOfName(List<String> placeholders, String name) {
+        return placeholders.indexOf("{" + name + "}");
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Small insertion-ordered map backed by parallel key/value arrays.
+ * Puts and clears do not allocate once the arrays have grown to their working size,
+ * which makes it suitable for builders that are reset and reused.
+ * Lookups are linear, so it is meant for the handful of entries a log statement carries.
+ */
+public class MutableArrayMap<V> extends AbstractMap<String, V> {
+    
+    private static final int DEFAULT_CAPACITY = 8;
+    
+    private String[] keys;
+    private Object[] values;
+    private int size;
+    
+    public MutableArrayMap() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public MutableArrayMap(int initialCapacity) {
+        this.keys = new String[Math.max(1, initialCapacity)];
+        this.values = new Object[keys.length];
+    }
+    
+    @Override
+    public V put(String key, V value) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                V previous = valueAt(i);
+                values[i] = value;
+                return previous;
+            }
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+    
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+    
+    @Override
+    public V remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = valueAt(index);
+        int moved = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        return previous;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Removes all entries, keeping the backing arrays for reuse.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+    
+    /**
+     * Gets the key at the given insertion index.
+     */
+    public String keyAt(int index) {
+        return keys[index];
+    }
+    
+    /**
+     * Gets the value at the given insertion index.
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[index];
+    }
+    
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,212 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable insertion-ordered map backed by parallel key/value arrays.
+ * 
+ * Updates return a new map and leave the receiver unchanged ({@link #with}, {@link #without}),
+ * so a reference to a map is a consistent snapshot that can be shared across threads and
+ * kept by log entries without copying. An update copies the arrays, which for the few dozen
+ * entries a logging context holds is cheaper than maintaining a hash trie.
+ * Null values are not stored: putting null removes the key.
+ */
+public final class PersistentArrayMap<V> extends AbstractMap<String, V> {
+    
+    private static final PersistentArrayMap<Object> EMPTY = 
+        new PersistentArrayMap<>(new String[0], new Object[0]);
+    
+    private final String[] keys;
+    private final Object[] values;
+    
+    private PersistentArrayMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+    
+    /**
+     * Gets the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentArrayMap<V> empty() {
+        return (PersistentArrayMap<V>) EMPTY;
+    }
+    
+    /**
+     * Gets an immutable copy of the map, skipping null keys and values.
+     * Returns the map itself if it already is a PersistentArrayMap.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentArrayMap<V> copyOf(Map<String, ? extends V> map) {
+        if (map instanceof PersistentArrayMap) {
+            return (PersistentArrayMap<V>) map;
+        }
+        if (map == null || map.isEmpty()) {
+            return empty();
+        }
+        String[] keys = new String[map.size()];
+        Object[] values = new Object[keys.length];
+        int size = 0;
+        for (Map.Entry<String, ? extends V> entry : map.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                keys[size] = entry.getKey();
+                values[size] = entry.getValue();
+                size++;
+            }
+        }
+        if (size == 0) {
+            return empty();
+        }
+        if (size < keys.length) {
+            keys = Arrays.copyOf(keys, size);
+            values = Arrays.copyOf(values, size);
+        }
+        return new PersistentArrayMap<>(keys, values);
+    }
+    
+    /**
+     * Returns a map with the key set to the value, replacing the previous value in place.
+     * A null value removes the key.
+     */
+    public PersistentArrayMap<V> with(String key, V value) {
+        if (value == null) {
+            return without(key);
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            if (values[index] == value) {
+                return this;
+            }
+            Object[] newValues = values.clone();
+            newValues[index] = value;
+            return new PersistentArrayMap<>(keys, newValues);
+        }
+        int size = keys.length;
+        String[] newKeys = Arrays.copyOf(keys, size + 1);
+        Object[] newValues = Arrays.copyOf(values, size + 1);
+        newKeys[size] = key;
+        newValues[size] = value;
+        return new PersistentArrayMap<>(newKeys, newValues);
+    }
+    
+    /**
+     * Returns a map without the key.
+     */
+    public PersistentArrayMap<V> without(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return this;
+        }
+        int size = keys.length - 1;
+        if (size == 0) {
+            return empty();
+        }
+        String[] newKeys = new String[size];
+        Object[] newValues = new Object[size];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(values, 0, newValues, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, size - index);
+        System.arraycopy(values, index + 1, newValues, index, size - index);
+        return new PersistentArrayMap<>(newKeys, newValues);
+    }
+    
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+    
+    @Override
+    public int size() {
+        return keys.length;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+    
+    /**
+     * Gets the key at the given insertion index.
+     */
+    public String keyAt(int index) {
+        return keys[index];
+    }
+    
+    /**
+     * Gets the value at the given insertion index.
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return (V) values[index];
+    }
+    
+    @Override
+    public V put(String key, V value) {
+        throw new UnsupportedOperationException("PersistentArrayMap is immutable; use with()");
+    }
+    
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("PersistentArrayMap is immutable; use without()");
+    }
+    
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("PersistentArrayMap is immutable");
+    }
+    
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+    
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
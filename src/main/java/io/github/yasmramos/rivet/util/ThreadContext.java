@@ -1,33 +1,92 @@
 package io.github.yasmramos.rivet.logging.util;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Thread-local context for storing logging context and tags.
  * Each thread maintains its own context that gets included in log entries.
+ * 
+ * Context and tags are held in an immutable {@link Snapshot} of two {@link PersistentArrayMap}s:
+ * an update swaps in a new snapshot, and {@link #getAll()}, {@link #getTags()} and
+ * {@link #snapshot()} return the current maps without copying them. A snapshot can be
+ * installed on another thread with {@link #run(Snapshot, Runnable)}, which is how
+ * {@link ContextPropagation} carries the context across executors.
+ * 
+ * Only the snapshot reference is stored per thread.
+ * On Java 21+ virtual threads, snapshots installed with {@link #run(Snapshot, Runnable)}
+ * are bound with {@code ScopedValue} when available, so they are inherited by
+ * structured subtasks.
  */
 public class ThreadContext {
     
-    private static final ThreadLocal<ThreadContext> THREAD_LOCAL = 
-        ThreadLocal.withInitial(ThreadContext::new);
+    private static final ContextStorage STORAGE = ContextStorageProvider.create();
+    private static final ThreadContext INSTANCE = new ThreadContext();
     
-    private final Map<String, Object> context = new ConcurrentHashMap<>();
-    private final Map<String, String> tags = new ConcurrentHashMap<>();
+    private ThreadContext() {
+    }
     
     /**
-     * Gets the thread context for the current thread.
+     * Gets the thread context handle. Its methods always act on the calling thread's context.
      */
     public static ThreadContext get() {
-        return THREAD_LOCAL.get();
+        return INSTANCE;
+    }
+    
+    /**
+     * Gets the current thread's context and tags in O(1).
+     */
+    public static Snapshot snapshot() {
+        return STORAGE.get();
+    }
+    
+    /**
+     * Replaces the current thread's context and tags with a snapshot.
+     * 
+     * @return the snapshot that was replaced, to be restored afterwards
+     */
+    public static Snapshot restore(Snapshot snapshot) {
+        Snapshot previous = STORAGE.get();
+        STORAGE.set(snapshot != null ? snapshot : Snapshot.EMPTY);
+        return previous;
     }
     
     /**
-     * Puts a context value.
+     * Runs a task with the snapshot as its context, then restores the caller's context.
+     */
+    public static void run(Snapshot snapshot, Runnable task) {
+        STORAGE.run(snapshot != null ? snapshot : Snapshot.EMPTY, task);
+    }
+    
+    /**
+     * Calls a task with the snapshot as its context, then restores the caller's context.
+     */
+    public static <V> V call(Snapshot snapshot, Callable<V> task) throws Exception {
+        return STORAGE.call(snapshot != null ? snapshot : Snapshot.EMPTY, task);
+    }
+    
+    /**
+     * Opens a scope for try-with-resources: context and tags put through the scope
+     * (or otherwise) are discarded when it is closed.
+     */
+    public static ContextScope openScope() {
+        return new ContextScope(STORAGE.get());
+    }
+    
+    /**
+     * Gets the name of the context storage in use: "thread-local" or "scoped-value".
+     */
+    public static String getStorageName() {
+        return STORAGE.name();
+    }
+    
+    /**
+     * Puts a context value. A null value removes the key.
      */
     public void put(String key, Object value) {
         if (key != null) {
-            context.put(key, value);
+            Snapshot current = STORAGE.get();
+            STORAGE.set(current.withContext(current.context.with(key, value)));
         }
     }
     
@@ -35,22 +94,24 @@ public class ThreadContext {
      * Gets a context value.
      */
     public Object get(String key) {
-        return context.get(key);
+        return STORAGE.get().context.get(key);
     }
     
     /**
      * Removes a context value.
      */
     public void remove(String key) {
-        context.remove(key);
+        Snapshot current = STORAGE.get();
+        STORAGE.set(current.withContext(current.context.without(key)));
     }
     
     /**
-     * Puts a tag.
+     * Puts a tag. A null value removes the tag.
      */
     public void putTag(String tag, String value) {
         if (tag != null) {
-            tags.put(tag, value);
+            Snapshot current = STORAGE.get();
+            STORAGE.set(current.withTags(current.tags.with(tag, value)));
         }
     }
     
@@ -58,84 +119,131 @@ public class ThreadContext {
      * Gets a tag value.
      */
     public String getTag(String tag) {
-        return tags.get(tag);
+        return STORAGE.get().tags.get(tag);
     }
     
     /**
      * Removes a tag.
      */
     public void removeTag(String tag) {
-        tags.remove(tag);
+        Snapshot current = STORAGE.get();
+        STORAGE.set(current.withTags(current.tags.without(tag)));
     }
     
     /**
-     * Gets all context values.
+     * Gets an immutable snapshot of all context values in O(1).
      */
     public Map<String, Object> getAll() {
-        return new ConcurrentHashMap<>(context);
+        return STORAGE.get().context;
     }
     
     /**
-     * Gets all tags.
+     * Gets an immutable snapshot of all tags in O(1).
      */
     public Map<String, String> getTags() {
-        return new ConcurrentHashMap<>(tags);
+        return STORAGE.get().tags;
     }
     
     /**
      * Clears all context and tags.
      */
     public void clear() {
-        context.clear();
-        tags.clear();
+        STORAGE.set(Snapshot.EMPTY);
     }
     
     /**
      * Clears all context values.
      */
     public void clearContext() {
-        context.clear();
+        Snapshot current = STORAGE.get();
+        STORAGE.set(current.withContext(PersistentArrayMap.empty()));
     }
     
     /**
      * Clears all tags.
      */
     public void clearTags() {
-        tags.clear();
+        Snapshot current = STORAGE.get();
+        STORAGE.set(current.withTags(PersistentArrayMap.empty()));
     }
     
     /**
      * Checks if context is empty.
      */
     public boolean isContextEmpty() {
-        return context.isEmpty();
+        return STORAGE.get().context.isEmpty();
     }
     
     /**
      * Checks if tags is empty.
      */
     public boolean isTagsEmpty() {
-        return tags.isEmpty();
+        return STORAGE.get().tags.isEmpty();
     }
     
     /**
      * Gets the number of context entries.
      */
     public int contextSize() {
-        return context.size();
+        return STORAGE.get().context.size();
     }
     
     /**
      * Gets the number of tags.
      */
     public int tagsSize() {
-        return tags.size();
+        return STORAGE.get().tags.size();
     }
     
     /**
-     * Clears the thread-local context for the current thread.
+     * Clears the context and tags of the current thread.
      */
     public static void clearAll() {
-        THREAD_LOCAL.remove();
+        STORAGE.set(Snapshot.EMPTY);
+    }
+    
+    /**
+     * Immutable context and tags of a thread at one point in time.
+     */
+    public static final class Snapshot {
+        
+        /**
+         * Snapshot without context or tags.
+         */
+        public static final Snapshot EMPTY = new Snapshot(PersistentArrayMap.empty(), PersistentArrayMap.empty());
+        
+        private final PersistentArrayMap<Object> context;
+        private final PersistentArrayMap<String> tags;
+        
+        private Snapshot(PersistentArrayMap<Object> context, PersistentArrayMap<String> tags) {
+            this.context = context;
+            this.tags = tags;
+        }
+        
+        public Map<String, Object> getContext() {
+            return context;
+        }
+        
+        public Map<String, String> getTags() {
+            return tags;
+        }
+        
+        public boolean isEmpty() {
+            return context.isEmpty() && tags.isEmpty();
+        }
+        
+        private Snapshot withContext(PersistentArrayMap<Object> newContext) {
+            if (newContext == context) {
+                return this;
+            }
+            return newContext.isEmpty() && tags.isEmpty() ? EMPTY : new Snapshot(newContext, tags);
+        }
+        
+        private Snapshot withTags(PersistentArrayMap<String> newTags) {
+            if (newTags == tags) {
+                return this;
+            }
+            return context.isEmpty() && newTags.isEmpty() ? EMPTY : new Snapshot(context, newTags);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders exceptions as structured JSON: class, message, frames, cause chain and
+ * suppressed exceptions.
+ * 
+ * {@code StackTraceElement.toString()} is the expensive part of rendering an exception,
+ * and during an incident the same few stacks are thrown over and over. Rendered frames
+ * are therefore kept in a bounded cache keyed by the content of the stack, so a
+ * repeated stack costs one array comparison instead of one string per frame.
+ * 
+ * Cause chains are cut at {@link #MAX_DEPTH} levels and at any exception already
+ * rendered, so circular causes do not loop.
+ */
+public final class ThrowableRenderer {
+    
+    /**
+     * Maximum nesting of causes and suppressed exceptions that is rendered.
+     */
+    public static final int MAX_DEPTH = 32;
+    
+    private static final int CACHE_SIZE = 256;
+    private static final RenderedStack[] CACHE = new RenderedStack[CACHE_SIZE];
+    private static final String[] NO_FRAMES = new String[0];
+    
+    private ThrowableRenderer() {
+        // Utility class
+    }
+    
+    /**
+     * Gets the class name shown for an exception.
+     */
+    public static String className(Throwable throwable) {
+        if (throwable instanceof DecodedThrowable) {
+            return ((DecodedThrowable) throwable).getClassName();
+        }
+        return throwable.getClass().getName();
+    }
+    
+    /**
+     * Gets the rendered stack frames of an exception. The array must not be modified.
+     */
+    public static String[] frames(Throwable throwable) {
+        return stack(throwable).frames;
+    }
+    
+    /**
+     * Writes an exception as a JSON object.
+     */
+    public static void write(JsonWriter json, Throwable throwable) {
+        write(json, throwable, newSeenSet(), 0);
+    }
+    
+    /**
+     * Converts an exception to nested maps and lists with the same layout as {@link #write}.
+     */
+    public static Map<String, Object> toMap(Throwable throwable) {
+        return toMap(throwable, newSeenSet(), 0);
+    }
+    
+    /**
+     * Gets the cause to render after an exception, or null when the chain ends, loops
+     * or is too deep. Adds the cause to the rendered set.
+     */
+    static Throwable nextCause(Throwable throwable, Set<Throwable> seen, int depth) {
+        Throwable cause = throwable.getCause();
+        return cause != null && depth + 1 < MAX_DEPTH && seen.add(cause) ? cause : null;
+    }
+    
+    /**
+     * Gets the suppressed exceptions to render after an exception, skipping any already rendered.
+     */
+    static List<Throwable> nextSuppressed(Throwable throwable, Set<Throwable> seen, int depth) {
+        Throwable[] suppressed = throwable.getSuppressed();
+        if (suppressed.length == 0 || depth + 1 >= MAX_DEPTH) {
+            return Collections.emptyList();
+        }
+        List<Throwable> result = new ArrayList<>(suppressed.length);
+        for (Throwable element : suppressed) {
+            if (seen.add(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+    
+    static Set<Throwable> newSeenSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+    
+    private static void write(JsonWriter json, Throwable throwable, Set<Throwable> seen, int depth) {
+        seen.add(throwable);
+        json.beginObject();
+        json.name("class").value(className(throwable));
+        if (throwable.getMessage() != null) {
+            json.name("message").value(throwable.getMessage());
+        }
+        RenderedStack stack = stack(throwable);
+        json.name("frames");
+        if (json.isIndented()) {
+            json.beginArray();
+            for (String frame : stack.frames) {
+                json.value(frame);
+            }
+            json.endArray();
+        } else {
+            // Compact output reuses the escaped array serialized the first time
+            json.rawValue().append(stack.compactJson());
+        }
+        
+        Throwable cause = nextCause(throwable, seen, depth);
+        if (cause != null) {
+            json.name("cause");
+            write(json, cause, seen, depth + 1);
+        }
+        List<Throwable> suppressed = nextSuppressed(throwable, seen, depth);
+        if (!suppressed.isEmpty()) {
+            json.name("suppressed").beginArray();
+            for (Throwable element : suppressed) {
+                write(json, element, seen, depth + 1);
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+    
+    private static Map<String, Object> toMap(Throwable throwable, Set<Throwable> seen, int depth) {
+        seen.add(throwable);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("class", className(throwable));
+        if (throwable.getMessage() != null) {
+            map.put("message", throwable.getMessage());
+        }
+        map.put("frames", Arrays.asList(frames(throwable)));
+        Throwable cause = nextCause(throwable, seen, depth);
+        if (cause != null) {
+            map.put("cause", toMap(cause, seen, depth + 1));
+        }
+        List<Throwable> suppressed = nextSuppressed(throwable, seen, depth);
+        if (!suppressed.isEmpty()) {
+            List<Object> elements = new ArrayList<>(suppressed.size());
+            for (Throwable element : suppressed) {
+                elements.add(toMap(element, seen, depth + 1));
+            }
+            map.put("suppressed", elements);
+        }
+        return map;
+    }
+    
+    private static RenderedStack stack(Throwable throwable) {
+        if (throwable instanceof DecodedThrowable) {
+            return ((DecodedThrowable) throwable).getRenderedStack();
+        }
+        StackTraceElement[] elements = throwable.getStackTrace();
+        int hash = Arrays.hashCode(elements);
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        RenderedStack cached = CACHE[slot];
+        if (cached != null && cached.hash == hash && Arrays.equals(cached.elements, elements)) {
+            return cached;
+        }
+        String[] frames = elements.length == 0 ? NO_FRAMES : new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            frames[i] = elements[i].toString();
+        }
+        RenderedStack rendered = new RenderedStack(elements, hash, frames);
+        // Entries are immutable apart from the idempotent JSON cache, so a racy publication is safe
+        CACHE[slot] = rendered;
+        return rendered;
+    }
+    
+    /**
+     * Rendered frames of one distinct stack.
+     */
+    static final class RenderedStack {
+        
+        final StackTraceElement[] elements;
+        final int hash;
+        final String[] frames;
+        private volatile String compactJson;
+        
+        RenderedStack(StackTraceElement[] elements, int hash, String[] frames) {
+            this.elements = elements;
+            this.hash = hash;
+            this.frames = frames;
+        }
+        
+        /**
+         * Gets the frames as a compact JSON array, serialized on first use.
+         */
+        String compactJson() {
+            String serialized = compactJson;
+            if (serialized == null) {
+                JsonWriter json = new JsonWriter(new StringBuilder(frames.length * 64 + 2), 0).beginArray();
+                for (String frame : frames) {
+                    json.value(frame);
+                }
+                serialized = json.endArray().buffer().toString();
+                compactJson = serialized;
+            }
+            return serialized;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable buffer holding the UTF-8 encoding of a character sequence.
+ * Encodes without creating an intermediate String and exposes the bytes
+ * through a read-only {@link ByteBuffer} view that can be handed to several sinks.
+ */
+public final class Utf8Buffer {
+    
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int length;
+    
+    public Utf8Buffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+        this.view = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Encodes the characters as UTF-8, replacing the previous contents.
+     * Unpaired surrogates are encoded as '?', like {@code String.getBytes(UTF_8)}.
+     * 
+     * @return a read-only view of the encoded bytes
+     */
+    public ByteBuffer encode(CharSequence chars) {
+        int count = chars.length();
+        ensureCapacity(count, 0);
+        int position = 0;
+        int i = 0;
+        // ASCII fast path
+        while (i < count) {
+            char c = chars.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            bytes[position++] = (byte) c;
+            i++;
+        }
+        for (; i < count; i++) {
+            char c = chars.charAt(i);
+            ensureCapacity(position + 4, position);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[position++] = (byte) '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        length = position;
+        return view();
+    }
+    
+    /**
+     * Gets a read-only view of the encoded bytes, positioned at the start.
+     * The view is reused; its position and limit are reset on every call.
+     */
+    public ByteBuffer view() {
+        view.clear();
+        view.limit(length);
+        return view;
+    }
+    
+    /**
+     * Gets the number of encoded bytes.
+     */
+    public int length() {
+        return length;
+    }
+    
+    /**
+     * Gets the current capacity of the backing array.
+     */
+    public int capacity() {
+        return bytes.length;
+    }
+    
+    private void ensureCapacity(int required, int used) {
+        if (required <= bytes.length) {
+            return;
+        }
+        byte[] grown = new byte[Math.max(required, bytes.length * 2)];
+        System.arraycopy(bytes, 0, grown, 0, used);
+        bytes = grown;
+        view = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+}
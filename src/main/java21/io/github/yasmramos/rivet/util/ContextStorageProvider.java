@@ -0,0 +1,20 @@
+package io.github.yasmramos.rivet.logging.util;
+
+/**
+ * Selects the {@link ContextStorage} for Java 21+: the scoped-value storage for
+ * virtual threads when {@code java.lang.ScopedValue} can be used, the thread-local one otherwise.
+ * This class replaces the Java 11 version in the multi-release jar.
+ */
+final class ContextStorageProvider {
+    
+    private ContextStorageProvider() {
+        // Utility class
+    }
+    
+    static ContextStorage create() {
+        if (ScopedValueStorage.isAvailable()) {
+            return new ScopedValueStorage();
+        }
+        return new ContextStorage.ThreadLocalStorage();
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * Context storage for virtual threads built on {@code java.lang.ScopedValue}.
+ * 
+ * {@link #run} binds the snapshot to a scoped value for the duration of the task instead of
+ * writing a thread-local, and structured subtasks inherit the binding. Context put inside
+ * the task updates the binding's holder, which only its owning thread may change, and while
+ * a thread's own binding is in place it takes precedence over its thread-local.
+ * Platform threads, virtual threads outside any binding, and subtasks changing an inherited
+ * context use a thread-local.
+ * 
+ * ScopedValue is a preview API in Java 21 and final in Java 25, so it is reached through
+ * method handles (using only methods both versions have) rather than linked against.
+ */
+final class ScopedValueStorage extends ContextStorage {
+    
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle GET;
+    private static final MethodHandle IS_BOUND;
+    private static final Object KEY;
+    
+    static {
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle get = null;
+        MethodHandle isBound = null;
+        Object key = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+            Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+            where = lookup.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+                .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+                .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+            get = lookup.findVirtual(scopedValue, "get", MethodType.methodType(Object.class))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            isBound = lookup.findVirtual(scopedValue, "isBound", MethodType.methodType(boolean.class))
+                .asType(MethodType.methodType(boolean.class, Object.class));
+        } catch (Throwable e) {
+            // Not available on this runtime: the provider falls back to thread-locals
+            key = null;
+        }
+        WHERE = where;
+        RUN = run;
+        GET = get;
+        IS_BOUND = isBound;
+        KEY = key;
+    }
+    
+    /**
+     * Snapshots set outside a binding the thread owns. On a thread with an inherited binding
+     * an empty snapshot is stored too, so that clearing the context hides the inherited one.
+     */
+    private final ThreadLocal<ThreadContext.Snapshot> locals = new ThreadLocal<>();
+    
+    static boolean isAvailable() {
+        return KEY != null;
+    }
+    
+    @Override
+    ThreadContext.Snapshot get() {
+        Thread thread = Thread.currentThread();
+        Binding binding = thread.isVirtual() ? binding() : null;
+        if (binding != null && binding.owner == thread) {
+            return binding.snapshot;
+        }
+        ThreadContext.Snapshot local = locals.get();
+        if (local != null) {
+            return local;
+        }
+        return binding != null ? binding.snapshot : ThreadContext.Snapshot.EMPTY;
+    }
+    
+    @Override
+    void set(ThreadContext.Snapshot snapshot) {
+        Thread thread = Thread.currentThread();
+        Binding binding = thread.isVirtual() ? binding() : null;
+        if (binding != null && binding.owner == thread) {
+            binding.snapshot = snapshot;
+        } else if (binding != null || snapshot != ThreadContext.Snapshot.EMPTY) {
+            locals.set(snapshot);
+        } else {
+            locals.remove();
+        }
+    }
+    
+    @Override
+    void run(ThreadContext.Snapshot snapshot, Runnable task) {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            super.run(snapshot, task);
+            return;
+        }
+        try {
+            RUN.invokeExact(WHERE.invokeExact(KEY, (Object) new Binding(thread, snapshot)), task);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Override
+    <V> V call(ThreadContext.Snapshot snapshot, Callable<V> task) throws Exception {
+        if (!Thread.currentThread().isVirtual()) {
+            return super.call(snapshot, task);
+        }
+        // Carrier.call changed signature between Java 21 and 25, so go through run()
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        run(snapshot, () -> {
+            try {
+                result[0] = task.call();
+            } catch (Exception e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        @SuppressWarnings("unchecked")
+        V value = (V) result[0];
+        return value;
+    }
+    
+    @Override
+    String name() {
+        return "scoped-value";
+    }
+    
+    private static Binding binding() {
+        try {
+            if ((boolean) IS_BOUND.invokeExact(KEY)) {
+                return (Binding) (Object) GET.invokeExact(KEY);
+            }
+            return null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Value bound to the scoped value: the snapshot, replaceable by the thread that bound it.
+     */
+    private static final class Binding {
+        
+        final Thread owner;
+        volatile ThreadContext.Snapshot snapshot;
+        
+        Binding(Thread owner, ThreadContext.Snapshot snapshot) {
+            this.owner = owner;
+            this.snapshot = snapshot;
+        }
+    }
+}
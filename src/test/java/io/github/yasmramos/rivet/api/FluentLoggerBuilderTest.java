@@ -0,0 +1,287 @@
+package io.github.yasmramos.rivet.logging.api;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.Rivet;
+import io.github.yasmramos.rivet.logging.util.MutableArrayMap;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for FluentLoggerBuilder chaining modes.
+ */
+class FluentLoggerBuilderTest {
+    
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    
+    private final List<JSONObject> entries = new CopyOnWriteArrayList<>();
+    private final LogSink capture = new LogSink() {
+        @Override
+        public void write(String logEntry) {
+            entries.add(new JSONObject(logEntry));
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "capture";
+        }
+    };
+    
+    @Test
+    void testDefaultModeKeepsReceiverUnchanged() {
+        FluentLoggerBuilder base = new FluentLoggerBuilder(LogLevel.INFO, null);
+        FluentLoggerBuilder withMessage = base.message("message");
+        
+        assertNotSame(base, withMessage);
+        assertThrows(IllegalStateException.class, base::log);
+    }
+    
+    @Test
+    void testReusableModeReturnsSameBuilder() {
+        FluentLoggerBuilder builder = FluentLoggerBuilder.reusable(LogLevel.DEBUG, null);
+        
+        assertSame(builder, builder.message("message").arg(1).context("key", "value").tag("tag", "value"));
+        builder.loggerName("reusable-test").log();
+        
+        // log() resets the builder, so the next statement starts clean
+        FluentLoggerBuilder next = FluentLoggerBuilder.reusable(LogLevel.DEBUG, null);
+        assertSame(builder, next);
+        assertThrows(IllegalStateException.class, next::log);
+    }
+    
+    @Test
+    void testNestedStatementGetsFreshBuilder() {
+        FluentLoggerBuilder outer = FluentLoggerBuilder.reusable(LogLevel.DEBUG, null).message("outer");
+        FluentLoggerBuilder inner = FluentLoggerBuilder.reusable(LogLevel.DEBUG, null);
+        
+        assertNotSame(outer, inner);
+        inner.message("inner").loggerName("reusable-test").log();
+        assertDoesNotThrow(() -> outer.loggerName("reusable-test").log());
+    }
+    
+    @Test
+    void testLazyValuesOnlyResolvedWhenLogged() {
+        RivetConfiguration config = new RivetConfiguration()
+            .clearSinks()
+            .setDebugToConsole(false)
+            .setMinLevel(LogLevel.INFO);
+        RivetLogger logger = new RivetLogger("lazy-test", config);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<String> expensive = () -> "value-" + calls.incrementAndGet();
+        
+        new FluentLoggerBuilder(LogLevel.DEBUG, null, null, logger)
+            .lazyMessage(expensive)
+            .arg(expensive)
+            .context("lazy", expensive)
+            .log();
+        assertEquals(0, calls.get());
+        
+        new FluentLoggerBuilder(LogLevel.INFO, null, null, logger)
+            .lazyMessage(expensive)
+            .arg(expensive)
+            .context("lazy", expensive)
+            .log();
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    void testPlainValuesImplementingSupplierAreNotCalled() {
+        RivetConfiguration config = new RivetConfiguration()
+            .clearSinks()
+            .setDebugToConsole(false)
+            .addSink(capture);
+        RivetLogger logger = new RivetLogger("plain-supplier-test", config);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<String> plain = new Supplier<String>() {
+            @Override
+            public String get() {
+                return "called-" + calls.incrementAndGet();
+            }
+            
+            @Override
+            public String toString() {
+                return "plain";
+            }
+        };
+        
+        new FluentLoggerBuilder(LogLevel.INFO, null, null, logger)
+            .message("Value {0}")
+            .arg((Object) plain)
+            .context("value", (Object) plain)
+            .log();
+        
+        assertEquals(0, calls.get());
+        assertEquals("Value plain", entries.get(0).getString("message"));
+        assertTrue(entries.get(0).getJSONObject("context").has("value"));
+        // Must still compile: message(null) is not ambiguous with the lazy overload
+        assertThrows(IllegalStateException.class, () -> new FluentLoggerBuilder(LogLevel.INFO, null).message(null).log());
+    }
+    
+    @Test
+    void testDisabledLevelReturnsSharedNoOpBuilder() {
+        // The default configuration logs INFO and above
+        FluentLoggerBuilder debug = Rivet.debug();
+        
+        assertSame(FluentLoggerBuilder.noOp(), debug);
+        assertSame(debug, Rivet.trace());
+        assertSame(debug, debug.message("ignored {0}").arg("value").context("key", "value").tag("tag", "value"));
+        assertFalse(debug.isEnabled());
+        assertDoesNotThrow(debug::log);
+        assertTrue(Rivet.info().isEnabled());
+    }
+    
+    @Test
+    void testImplicitLoggerIsTheCallingClass() {
+        RivetConfiguration config = Rivet.getConfiguration();
+        config.addSink(capture);
+        try {
+            Rivet.info().message("default").log();
+            OtherCaller.log();
+            Rivet.debug().message("disabled").log();
+            config.setGarbageFree(true);
+            try {
+                Rivet.info().message("reusable").log();
+                OtherCaller.log();
+            } finally {
+                config.setGarbageFree(false);
+            }
+        } finally {
+            config.removeSink(capture);
+        }
+        
+        String self = FluentLoggerBuilderTest.class.getName();
+        String other = OtherCaller.class.getName();
+        assertEquals(4, entries.size());
+        assertEquals(List.of(self, other, self, other), 
+                     entries.stream().map(entry -> entry.getString("logger")).collect(Collectors.toList()));
+        assertEquals("reusable", entries.get(2).getString("message"));
+        assertSame(Rivet.forClass(FluentLoggerBuilderTest.class), Rivet.getLogger(self));
+    }
+    
+    /**
+     * Second calling class, to check the logger is cached per caller and not per builder.
+     */
+    private static class OtherCaller {
+        
+        static void log() {
+            Rivet.info().message("other").log();
+        }
+    }
+    
+    @Test
+    void testReusableChainDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        
+        // DEBUG is below the default INFO threshold, so only the chain itself is measured
+        Rivet.getLogger("allocation-test");
+        Integer value = 42;
+        long threadId = Thread.currentThread().getId();
+        
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            logChain(value);
+        }
+        
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            logChain(value);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        
+        // Allow a little slack for the measurement itself
+        assertTrue(allocated < 1024, "Reusable fluent chain allocated " + allocated + " bytes");
+    }
+    
+    @Test
+    void testReusableChainAddsNoAllocationToEnabledStatement() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        
+        RivetConfiguration config = Rivet.getConfiguration();
+        List<LogSink> sinks = config.getSinks();
+        boolean debugToConsole = config.isDebugToConsole();
+        config.clearSinks().setDebugToConsole(false).addSink(new LogSink.NullSink());
+        try {
+            // The entry itself still allocates, so the chain is compared with a direct
+            // logger call that is handed the same message, argument, context and tag,
+            // in the same map type the builder uses
+            RivetLogger logger = Rivet.getLogger("allocation-test");
+            Integer value = 42;
+            MutableArrayMap<Object> context = new MutableArrayMap<>();
+            context.put("batch", value);
+            MutableArrayMap<String> tags = new MutableArrayMap<>();
+            tags.put("component", "test");
+            Object[] args = {value};
+            Runnable chain = () -> logChain(LogLevel.INFO, value);
+            Runnable direct = () -> logger.log(LogLevel.INFO, "Processed {0} items", context, tags, args);
+            
+            for (int i = 0; i < WARMUP_ITERATIONS * 2; i++) {
+                chain.run();
+                direct.run();
+            }
+            // Best of a few interleaved rounds, so a late JIT compilation does not skew one side
+            long chainBytes = Long.MAX_VALUE;
+            long directBytes = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                chainBytes = Math.min(chainBytes, allocatedPerStatement(threadBean, chain));
+                directBytes = Math.min(directBytes, allocatedPerStatement(threadBean, direct));
+            }
+            
+            // A few words of slack: escape analysis does not always eliminate the same objects
+            assertTrue(chainBytes <= directBytes + 64, 
+                       "Reusable fluent chain allocated " + chainBytes + " bytes per statement, " 
+                       + "the logger call alone " + directBytes);
+        } finally {
+            config.clearSinks().setDebugToConsole(debugToConsole);
+            sinks.forEach(config::addSink);
+        }
+    }
+    
+    private static long allocatedPerStatement(com.sun.management.ThreadMXBean threadBean, Runnable statement) {
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            statement.run();
+        }
+        return (threadBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+    }
+    
+    private static void logChain(Integer value) {
+        logChain(LogLevel.DEBUG, value);
+    }
+    
+    private static void logChain(LogLevel level, Integer value) {
+        FluentLoggerBuilder.reusable(level, null)
+            .loggerName("allocation-test")
+            .message("Processed {0} items")
+            .arg(value)
+            .context("batch", value)
+            .tag("component", "test")
+            .log();
+    }
+}
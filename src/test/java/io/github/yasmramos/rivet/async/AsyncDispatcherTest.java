@@ -0,0 +1,164 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.core.LogWriter;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for handing entries to background consumers through the AsyncDispatcher.
+ */
+class AsyncDispatcherTest {
+    
+    // Messages of the written entries
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    
+    private final LogSink capture = new LogSink() {
+        @Override
+        public void write(String logEntry) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(new JSONObject(logEntry).getString("message"));
+            writerThreads.add(Thread.currentThread().getName());
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "capture";
+        }
+    };
+    
+    private AsyncDispatcher newDispatcher(int bufferSize) {
+        RivetConfiguration configuration = new RivetConfiguration()
+            .setDebugToConsole(false)
+            .clearSinks()
+            .addSink(capture);
+        return new AsyncDispatcher(bufferSize, WaitStrategy.YIELD, 1, new LogWriter(configuration));
+    }
+    
+    private static LogEntry entry(String message) {
+        return new LogEntry.Builder().timestamp(Instant.now()).level(LogLevel.INFO).message(message).build();
+    }
+    
+    @Test
+    void testEntriesFromManyProducersAreAllWrittenInProducerOrder() throws InterruptedException {
+        AsyncDispatcher dispatcher = newDispatcher(16);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            String prefix = "p" + p + "-";
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    dispatcher.publish(entry(prefix + i));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        dispatcher.shutdown();
+        
+        assertEquals(8_000, written.size());
+        int[] next = new int[4];
+        for (String message : written) {
+            String[] parts = message.substring(1).split("-");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals(next[producer]++, Integer.parseInt(parts[1]));
+        }
+    }
+    
+    @Test
+    void testPublishWaitsWhileTheRingIsFull() throws InterruptedException {
+        gate = new CountDownLatch(1);
+        AsyncDispatcher dispatcher = newDispatcher(2);
+        // The consumer blocks on the first entry, the next two fill the ring
+        for (int i = 0; i < 3; i++) {
+            dispatcher.publish(entry("queued-" + i));
+        }
+        CountDownLatch published = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            dispatcher.publish(entry("waiting"));
+            published.countDown();
+        });
+        producer.start();
+        
+        assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+        gate.countDown();
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+        
+        assertEquals(4, written.size());
+        assertEquals("waiting", written.get(3));
+    }
+    
+    @Test
+    void testShutdownDrainsPendingEntriesAndLaterEntriesAreWrittenInline() throws InterruptedException {
+        gate = new CountDownLatch(1);
+        AsyncDispatcher dispatcher = newDispatcher(64);
+        for (int i = 0; i < 50; i++) {
+            dispatcher.publish(entry("pending-" + i));
+        }
+        assertTrue(dispatcher.getPendingCount() > 0);
+        
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            gate.countDown();
+        });
+        releaser.start();
+        dispatcher.shutdown();
+        
+        assertFalse(dispatcher.isRunning());
+        assertEquals(50, written.size());
+        assertEquals(0, dispatcher.getPendingCount());
+        
+        dispatcher.publish(entry("late"));
+        assertEquals(51, written.size());
+        assertEquals(Thread.currentThread().getName(), writerThreads.get(50));
+    }
+    
+    @Test
+    void testConfigurationKeepsTheStoppedDispatcherAfterShutdown() {
+        RivetConfiguration configuration = new RivetConfiguration()
+            .setDebugToConsole(false)
+            .clearSinks()
+            .addSink(capture)
+            .setAsync(true);
+        AsyncDispatcher dispatcher = configuration.getAsyncDispatcher();
+        dispatcher.publish(entry("before"));
+        configuration.shutdown();
+        
+        assertSame(dispatcher, configuration.getAsyncDispatcher());
+        assertFalse(dispatcher.isRunning());
+        assertEquals(1, written.size());
+    }
+}
@@ -0,0 +1,276 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import io.github.yasmramos.rivet.logging.api.ByteLogSink;
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.core.LogWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for QueuedSink overflow policies, flushing and closing.
+ */
+class QueuedSinkTest {
+    
+    private final RivetConfiguration configuration = new RivetConfiguration().setIncludeHostname(false);
+    private final RecordingSink delegate = new RecordingSink();
+    
+    /**
+     * Sink that blocks its first write until released and records how it is called.
+     */
+    private static class RecordingSink implements LogSink {
+        
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final List<String> flushThreads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        
+        @Override
+        public void write(String logEntry) {
+            writing.set(true);
+            entered.countDown();
+            try {
+                release.await();
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(logEntry);
+            writing.set(false);
+        }
+        
+        @Override
+        public void flush() {
+            if (writing.get()) {
+                overlapped.set(true);
+            }
+            flushThreads.add(Thread.currentThread().getName());
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "recording";
+        }
+        
+        List<String> entries() {
+            return lines.stream().filter(line -> !line.contains("dropped")).collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Creates a sink with two queue slots whose worker is blocked writing "first".
+     */
+    private QueuedSink blockedSink(OverflowPolicy policy) throws InterruptedException {
+        QueuedSink sink = new QueuedSink(delegate, 2, policy, LogLevel.WARN, 60_000L, configuration);
+        sink.write("first", LogLevel.INFO);
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+        sink.write("second", LogLevel.INFO);
+        sink.write("third", LogLevel.INFO);
+        return sink;
+    }
+    
+    @Test
+    void testDropNewestDiscardsIncomingEntries() throws InterruptedException {
+        QueuedSink sink = blockedSink(OverflowPolicy.DROP_NEWEST);
+        sink.write("fourth", LogLevel.INFO);
+        sink.write("fifth", LogLevel.ERROR);
+        delegate.release.countDown();
+        sink.close();
+        
+        assertEquals(2, sink.getDroppedCount());
+        assertEquals(List.of("first", "second", "third"), delegate.entries());
+        assertTrue(delegate.lines.get(3).contains("dropped 2 log entries"));
+    }
+    
+    @Test
+    void testDropOldestKeepsTheNewestEntries() throws InterruptedException {
+        QueuedSink sink = blockedSink(OverflowPolicy.DROP_OLDEST);
+        sink.write("fourth", LogLevel.INFO);
+        sink.write("fifth", LogLevel.INFO);
+        delegate.release.countDown();
+        sink.close();
+        
+        assertEquals(2, sink.getDroppedCount());
+        assertEquals(List.of("first", "fourth", "fifth"), delegate.entries());
+    }
+    
+    @Test
+    void testDropBelowLevelDropsOnlyLowLevelsAndWaitsForTheRest() throws InterruptedException {
+        QueuedSink sink = blockedSink(OverflowPolicy.DROP_BELOW_LEVEL);
+        sink.write("debug", LogLevel.DEBUG);
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            sink.write("error", LogLevel.ERROR);
+            written.countDown();
+        });
+        writer.start();
+        
+        assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+        delegate.release.countDown();
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        sink.close();
+        
+        assertEquals(1, sink.getDroppedCount());
+        assertEquals(List.of("first", "second", "third", "error"), delegate.entries());
+    }
+    
+    @Test
+    void testBlockWaitsForAFreeSlot() throws InterruptedException {
+        QueuedSink sink = blockedSink(OverflowPolicy.BLOCK);
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            sink.write("fourth", LogLevel.DEBUG);
+            written.countDown();
+        });
+        writer.start();
+        
+        assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+        delegate.release.countDown();
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        sink.close();
+        
+        assertEquals(0, sink.getDroppedCount());
+        assertEquals(List.of("first", "second", "third", "fourth"), delegate.entries());
+    }
+    
+    @Test
+    void testFlushWaitsForInFlightEntriesAndRunsOnTheWorker() throws InterruptedException {
+        QueuedSink sink = new QueuedSink(delegate, 64, OverflowPolicy.BLOCK, configuration);
+        delegate.release.countDown();
+        for (int i = 0; i < 20; i++) {
+            sink.write("entry-" + i);
+        }
+        sink.flush();
+        
+        assertEquals(20, delegate.lines.size());
+        assertFalse(delegate.overlapped.get());
+        assertEquals(List.of("rivet-sink-recording"), delegate.flushThreads);
+        sink.close();
+    }
+    
+    @Test
+    void testWritesAfterCloseAreCountedAsDropped() {
+        QueuedSink sink = new QueuedSink(delegate, 8, OverflowPolicy.BLOCK, configuration);
+        delegate.release.countDown();
+        sink.write("kept");
+        sink.close();
+        sink.write("late");
+        
+        assertEquals(List.of("kept"), delegate.entries());
+        assertEquals(1, sink.getDroppedCount());
+    }
+    
+    @Test
+    void testFlushGivesUpOnAStuckSink() throws InterruptedException {
+        QueuedSink sink = new QueuedSink(delegate, 8, OverflowPolicy.BLOCK, configuration);
+        sink.write("stuck");
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+        
+        long start = System.nanoTime();
+        sink.flush();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertTrue(waitedMillis >= 4_000 && waitedMillis < 30_000, "flush waited " + waitedMillis + " ms");
+        delegate.release.countDown();
+        sink.close();
+        assertEquals(List.of("stuck"), delegate.entries());
+    }
+    
+    @Test
+    void testWriterRacingCloseDoesNotWaitForTheWorker() throws InterruptedException {
+        QueuedSink sink = blockedSink(OverflowPolicy.BLOCK);
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            sink.write("fourth", LogLevel.INFO);
+            written.countDown();
+        });
+        writer.start();
+        assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+        
+        // The worker stays stuck, so close() waits for it; the blocked writer must not
+        Thread closer = new Thread(sink::close);
+        closer.start();
+        assertTrue(written.await(2, TimeUnit.SECONDS));
+        delegate.release.countDown();
+        closer.join();
+        assertEquals(List.of("first", "second", "third"), delegate.entries());
+        assertEquals(1, sink.getDroppedCount());
+    }
+    
+    @Test
+    void testEntrySinkIsQueuedWithItsEntries() {
+        List<LogEntry> entries = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        EntryLogSink entrySink = new EntryLogSink() {
+            @Override
+            public void write(LogEntry entry) {
+                entries.add(entry);
+                threads.add(Thread.currentThread().getName());
+            }
+            
+            @Override
+            public void flush() {
+            }
+            
+            @Override
+            public void close() {
+            }
+            
+            @Override
+            public String getName() {
+                return "entries";
+            }
+        };
+        RivetConfiguration config = new RivetConfiguration()
+            .clearSinks()
+            .setDebugToConsole(false)
+            .addQueuedSink(entrySink, 8, OverflowPolicy.BLOCK);
+        LogEntry entry = new LogEntry.Builder()
+            .timestamp(Instant.now())
+            .level(LogLevel.INFO)
+            .loggerName("OrderService")
+            .message("queued")
+            .threadName("main")
+            .build();
+        
+        new LogWriter(config).write(entry);
+        config.getSinks().get(0).flush();
+        
+        assertTrue(config.getSinks().get(0) instanceof QueuedEntrySink);
+        assertEquals(List.of(entry), entries);
+        assertEquals(List.of("rivet-sink-entries"), threads);
+        
+        // Formatted lines through the plain LogSink contract become entries, queued or not
+        config.getSinks().get(0).write("queued line", LogLevel.WARN);
+        config.getSinks().get(0).flush();
+        entrySink.write("direct line");
+        assertEquals(3, entries.size());
+        assertEquals("queued line", entries.get(1).getMessage());
+        assertEquals(LogLevel.WARN, entries.get(1).getLevel());
+        assertEquals("rivet-sink-entries", threads.get(1));
+        assertEquals("direct line", entries.get(2).getMessage());
+        assertEquals(LogLevel.INFO, entries.get(2).getLevel());
+        assertThrows(IllegalArgumentException.class, 
+                     () -> new QueuedSink(entrySink, 8, OverflowPolicy.BLOCK, configuration));
+        assertThrows(IllegalArgumentException.class, () -> ByteLogSink.adapt(entrySink));
+        config.getSinks().get(0).close();
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.yasmramos.rivet.logging.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the lock-free multi-producer / multi-consumer RingBuffer.
+ */
+class RingBufferTest {
+    
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+    
+    @Test
+    void testCapacityIsRoundedAndFullRingRejectsOffers() {
+        RingBuffer<Integer> ring = new RingBuffer<>(5);
+        assertEquals(8, ring.capacity());
+        
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(8));
+        assertEquals(1.0, ring.fillRatio());
+        
+        assertEquals(Integer.valueOf(0), ring.poll());
+        assertTrue(ring.offer(8));
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(Integer.valueOf(i), ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+    
+    @Test
+    void testMultipleProducersKeepTheirOwnOrder() throws InterruptedException {
+        RingBuffer<long[]> ring = new RingBuffer<>(64);
+        List<Thread> producers = startProducers(ring);
+        
+        long[] lastSeen = new long[PRODUCERS];
+        Arrays.fill(lastSeen, -1L);
+        int received = 0;
+        while (received < PRODUCERS * PER_PRODUCER) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertEquals(lastSeen[producer] + 1, element[1], "out of order for producer " + producer);
+            lastSeen[producer] = element[1];
+            received++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        
+        assertNull(ring.poll());
+        for (long last : lastSeen) {
+            assertEquals(PER_PRODUCER - 1, last);
+        }
+    }
+    
+    @Test
+    void testMultipleConsumersReceiveEveryElementOnce() throws InterruptedException {
+        RingBuffer<long[]> ring = new RingBuffer<>(64);
+        Set<Long> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(PRODUCERS * PER_PRODUCER);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            new Thread(() -> {
+                while (remaining.get() > 0) {
+                    long[] element = ring.poll();
+                    if (element == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    if (!received.add(element[0] * PER_PRODUCER + element[1])) {
+                        duplicates.incrementAndGet();
+                    }
+                    remaining.decrementAndGet();
+                }
+                done.countDown();
+            }).start();
+        }
+        for (Thread producer : startProducers(ring)) {
+            producer.join();
+        }
+        done.await();
+        
+        assertEquals(0, duplicates.get());
+        assertEquals(PRODUCERS * PER_PRODUCER, received.size());
+    }
+    
+    private static List<Thread> startProducers(RingBuffer<long[]> ring) {
+        List<Thread> producers = new ArrayList<>(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < PER_PRODUCER; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        return producers;
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.yasmramos.rivet.logging.benchmark;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.sink.RollingFileSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of RollingFileSink writing JSON lines to local disk.
+ * 
+ * Reported in lines per second; multiply by {@code lineBytes} (+1 for the separator)
+ * to get bytes per second. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.yasmramos.rivet.logging.benchmark.RollingFileSinkBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RollingFileSinkBenchmark {
+    
+    @Param({"256", "1024"})
+    public int lineBytes;
+    
+    @Param({"1048576"})
+    public int bufferSize;
+    
+    private Path directory;
+    private RollingFileSink sink;
+    private ByteBuffer line;
+    
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rivet-benchmark");
+        sink = RollingFileSink.Builder.create(directory.resolve("bench.log"))
+            .maxFileSize(256L * 1024 * 1024)
+            .maxHistory(2)
+            .bufferSize(bufferSize)
+            .build();
+        
+        byte[] json = new byte[lineBytes];
+        Arrays.fill(json, (byte) 'x');
+        byte[] prefix = "{\"level\":\"info\",\"message\":\"".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(prefix, 0, json, 0, prefix.length);
+        json[lineBytes - 2] = '"';
+        json[lineBytes - 1] = '}';
+        line = ByteBuffer.wrap(json).asReadOnlyBuffer();
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        sink.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public void writeLine() {
+        line.rewind();
+        sink.write(line, LogLevel.INFO);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RollingFileSinkBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.yasmramos.rivet.logging.benchmark;
+
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.core.Rivet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of SLF4J calls through the Rivet bridge with zero, one, two and N arguments, at an
+ * enabled level (INFO, formatted once and discarded by a null sink) and at a disabled level
+ * (DEBUG, which should return before any formatting or allocation). Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.yasmramos.rivet.logging.benchmark.Slf4jBridgeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Slf4jBridgeBenchmark {
+    
+    private Logger logger;
+    private String orderId = "o-42";
+    private int quantity = 100;
+    private double price = 12.5;
+    private String venue = "XNAS";
+    
+    @Setup
+    public void setUp() {
+        Rivet.getConfiguration()
+            .setDebugToConsole(false)
+            .setIncludeHostname(false)
+            .clearSinks()
+            .addSink(new LogSink.NullSink());
+        logger = LoggerFactory.getLogger(Slf4jBridgeBenchmark.class);
+    }
+    
+    @Benchmark
+    public void enabledNoArgs() {
+        logger.info("Order filled");
+    }
+    
+    @Benchmark
+    public void enabledOneArg() {
+        logger.info("Order {} filled", orderId);
+    }
+    
+    @Benchmark
+    public void enabledTwoArgs() {
+        logger.info("Order {} filled {}", orderId, quantity);
+    }
+    
+    @Benchmark
+    public void enabledManyArgs() {
+        logger.info("Order {} filled {} at {} on {}", orderId, quantity, price, venue);
+    }
+    
+    @Benchmark
+    public void disabledNoArgs() {
+        logger.debug("Order filled");
+    }
+    
+    @Benchmark
+    public void disabledOneArg() {
+        logger.debug("Order {} filled", orderId);
+    }
+    
+    @Benchmark
+    public void disabledTwoArgs() {
+        logger.debug("Order {} filled {}", orderId, quantity);
+    }
+    
+    @Benchmark
+    public void disabledManyArgs() {
+        logger.debug("Order {} filled {} at {} on {}", orderId, quantity, price, venue);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(Slf4jBridgeBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.yasmramos.rivet.logging.benchmark;
+
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.api.RivetLogger;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.util.ThreadContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of several threads logging through one shared RivetLogger, each with its own
+ * ThreadContext. Compares looking the context up at log time against passing a context
+ * captured in advance, which is what the logger used to do with the creating thread's context.
+ * Entries are formatted and discarded by a null sink. Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=io.github.yasmramos.rivet.logging.benchmark.ThreadContextBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ThreadContextBenchmark {
+    
+    private static final Object[] ARGS = {"o-42", 100};
+    
+    private RivetLogger logger;
+    
+    @Setup
+    public void setUp() {
+        RivetConfiguration configuration = new RivetConfiguration()
+            .setDebugToConsole(false)
+            .setIncludeHostname(false)
+            .clearSinks()
+            .addSink(new LogSink.NullSink());
+        logger = new RivetLogger("benchmark", configuration);
+    }
+    
+    /**
+     * Per-thread context, filled the way a request filter would fill the MDC.
+     */
+    @State(Scope.Thread)
+    public static class RequestContext {
+        
+        Map<String, Object> context;
+        Map<String, String> tags;
+        
+        @Setup
+        public void setUp() {
+            ThreadContext threadContext = ThreadContext.get();
+            for (int i = 0; i < 15; i++) {
+                threadContext.put("key" + i, "value-" + Thread.currentThread().getId() + "-" + i);
+            }
+            threadContext.putTag("component", "matching");
+            context = threadContext.getAll();
+            tags = threadContext.getTags();
+        }
+        
+        @TearDown
+        public void tearDown() {
+            ThreadContext.clearAll();
+        }
+    }
+    
+    @Benchmark
+    public void logWithThreadContextLookup(RequestContext request) {
+        logger.log(LogLevel.INFO, "Order {} filled {}", ARGS);
+    }
+    
+    @Benchmark
+    public void logWithCapturedContext(RequestContext request) {
+        logger.log(LogLevel.INFO, "Order {} filled {}", request.context, request.tags, ARGS);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ThreadContextBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,229 @@
+package io.github.yasmramos.rivet.logging.bridge;
+
+import io.github.yasmramos.rivet.logging.api.EntryLogSink;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.core.Rivet;
+import io.github.yasmramos.rivet.logging.util.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for binding SLF4J to Rivet through the service provider.
+ */
+class RivetServiceProviderTest {
+    
+    private final List<LogEntry> entries = new CopyOnWriteArrayList<>();
+    private final EntryLogSink capture = new EntryLogSink() {
+        @Override
+        public void write(LogEntry entry) {
+            entries.add(entry);
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "capture";
+        }
+    };
+    
+    @BeforeEach
+    void setUp() {
+        Rivet.getConfiguration().addSink(capture);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        Rivet.getConfiguration().removeSink(capture);
+        ThreadContext.clearAll();
+    }
+    
+    @Test
+    void testLoggerFactoryBindsToCachedRivetLoggers() {
+        Logger logger = LoggerFactory.getLogger("com.example.Service");
+        
+        assertTrue(logger instanceof RivetSLF4JLogger);
+        assertSame(logger, LoggerFactory.getLogger("com.example.Service"));
+        assertSame(logger, RivetSLF4JLogger.Factory.getLogger("com.example.Service"));
+    }
+    
+    @Test
+    void testMdcIsBackedByThreadContext() {
+        MDC.put("requestId", "req-1");
+        ThreadContext.get().put("attempt", 2);
+        
+        assertEquals("req-1", ThreadContext.get().get("requestId"));
+        assertEquals("2", MDC.get("attempt"));
+        assertEquals(Map.of("requestId", "req-1", "attempt", "2"), MDC.getCopyOfContextMap());
+        
+        MDC.setContextMap(Map.of("userId", "alice"));
+        assertEquals(Map.of("userId", "alice"), ThreadContext.get().getAll());
+        
+        MDC.clear();
+        assertTrue(ThreadContext.get().isContextEmpty());
+        assertNull(MDC.getCopyOfContextMap());
+    }
+    
+    @Test
+    void testExceptionsReachTheLogEntry() {
+        Logger logger = LoggerFactory.getLogger("com.example.Payments");
+        IllegalStateException failure = new IllegalStateException("declined");
+        logger.error("Payment failed", failure);
+        logger.warn("Payment {} failed", "p-1", failure);
+        
+        assertEquals(2, entries.size());
+        assertSame(failure, entries.get(0).getThrowable());
+        assertSame(failure, entries.get(1).getThrowable());
+        assertEquals("Payment p-1 failed", entries.get(1).getMessage());
+    }
+    
+    @Test
+    void testTrailingExceptionIsNeverConsumedByAPlaceholder() {
+        Logger logger = LoggerFactory.getLogger("com.example.Payments");
+        IllegalStateException failure = new IllegalStateException("declined");
+        logger.error("failed {}", failure);
+        logger.atError().log("failed {}", failure);
+        logger.atError().addArgument("p-2").addArgument(failure).log("failed {} {}");
+        
+        assertEquals(3, entries.size());
+        for (LogEntry entry : entries) {
+            assertSame(failure, entry.getThrowable());
+        }
+        assertEquals("failed {}", entries.get(0).getMessage());
+        assertEquals("failed {}", entries.get(1).getMessage());
+        assertEquals("failed p-2 {}", entries.get(2).getMessage());
+    }
+    
+    @Test
+    void testFluentKeyValuesBecomeTypedContext() {
+        Logger logger = LoggerFactory.getLogger("com.example.Orders");
+        IllegalStateException failure = new IllegalStateException("stock");
+        MDC.put("requestId", "req-1");
+        
+        logger.atWarn()
+            .addKeyValue("orderId", 42)
+            .addKeyValue("requestId", "req-2")
+            .addArgument(() -> "o-42")
+            .log("Order {} delayed", failure);
+        
+        assertEquals(1, entries.size());
+        LogEntry entry = entries.get(0);
+        assertEquals("Order o-42 delayed", entry.getMessage());
+        assertEquals(42, entry.getContext().get("orderId"));
+        assertEquals("req-2", entry.getContext().get("requestId"));
+        assertSame(failure, entry.getThrowable());
+        assertSame(NOPLoggingEventBuilder.singleton(), logger.atTrace());
+    }
+    
+    @Test
+    void testMarkersAreAttachedToTheEntryOnly() {
+        Logger logger = LoggerFactory.getLogger("com.example.Audit");
+        Marker audit = MarkerFactory.getDetachedMarker("AUDIT");
+        audit.add(MarkerFactory.getDetachedMarker("SECURITY"));
+        
+        logger.info(audit, "Login {}", "alice");
+        logger.info("Unmarked");
+        logger.atInfo().addMarker(MarkerFactory.getDetachedMarker("BILLING")).addMarker(audit).log("Charged");
+        
+        assertEquals(3, entries.size());
+        assertEquals("AUDIT,SECURITY", entries.get(0).getTags().get("marker"));
+        assertEquals("Login alice", entries.get(0).getMessage());
+        assertNull(entries.get(1).getTags().get("marker"));
+        assertEquals("BILLING,AUDIT,SECURITY", entries.get(2).getTags().get("marker"));
+        assertTrue(ThreadContext.get().isTagsEmpty());
+    }
+    
+    @Test
+    void testDeniedMarkersAreDroppedBeforeFormatting() {
+        Logger logger = LoggerFactory.getLogger("com.example.Noisy");
+        Marker chatty = MarkerFactory.getDetachedMarker("CHATTY");
+        chatty.add(MarkerFactory.getDetachedMarker("HEARTBEAT"));
+        AtomicInteger formatted = new AtomicInteger();
+        Object expensive = new Object() {
+            @Override
+            public String toString() {
+                return "value-" + formatted.incrementAndGet();
+            }
+        };
+        
+        Rivet.getConfiguration().denyMarker("HEARTBEAT");
+        try {
+            assertFalse(logger.isInfoEnabled(chatty));
+            logger.info(chatty, "Ping {}", expensive);
+            logger.atInfo().addMarker(chatty).addKeyValue("value", expensive).log("Ping {}", expensive);
+            logger.info("Kept {}", expensive);
+        } finally {
+            Rivet.getConfiguration().allowMarker("HEARTBEAT");
+        }
+        
+        assertEquals(1, entries.size());
+        assertEquals(1, formatted.get());
+        assertTrue(logger.isInfoEnabled(chatty));
+    }
+    
+    @Test
+    void testArgumentsAreFormattedOnceAndOnlyWhenEnabled() {
+        Logger logger = LoggerFactory.getLogger("com.example.Formatting");
+        AtomicInteger formatted = new AtomicInteger();
+        Object counted = new Object() {
+            @Override
+            public String toString() {
+                return "value-" + formatted.incrementAndGet();
+            }
+        };
+        
+        logger.debug("Skipped {}", counted);
+        logger.info("{} and {}", null, "b");
+        logger.info("{} then {}", "a", null);
+        logger.info("Ids {} of {}", new int[] {1, 2}, counted);
+        logger.info("Plain {}", (Supplier<String>) () -> "called");
+        
+        assertEquals(4, entries.size());
+        assertEquals("null and b", entries.get(0).getMessage());
+        assertEquals("a then null", entries.get(1).getMessage());
+        assertEquals("Ids [1, 2] of value-1", entries.get(2).getMessage());
+        assertEquals(1, formatted.get());
+        assertTrue(entries.get(3).getMessage().startsWith("Plain "));
+        assertNotEquals("Plain called", entries.get(3).getMessage());
+    }
+    
+    @Test
+    void testFormatsFollowSlf4jPlaceholderRules() {
+        Logger logger = LoggerFactory.getLogger("com.example.Routes");
+        IllegalStateException failure = new IllegalStateException("denied");
+        logger.info("Route {id} matched {}", "user-1");
+        logger.info("Set \\{} to {}", "on");
+        logger.error("Route {id} failed for {}", "user-2", failure);
+        logger.atInfo().log("Route {0} took {}", 5);
+        logger.atInfo().setMessage(() -> "Set \\{} by {}").addArgument("admin").log();
+        
+        assertEquals(5, entries.size());
+        assertEquals("Route {id} matched user-1", entries.get(0).getMessage());
+        assertEquals("Set {} to on", entries.get(1).getMessage());
+        assertEquals("Route {id} failed for user-2", entries.get(2).getMessage());
+        assertSame(failure, entries.get(2).getThrowable());
+        assertEquals("Route {0} took 5", entries.get(3).getMessage());
+        assertEquals("Set {} by admin", entries.get(4).getMessage());
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.yasmramos.rivet.logging.core;
+
+import io.github.yasmramos.rivet.logging.api.ByteLogSink;
+import io.github.yasmramos.rivet.logging.api.LogSink;
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the LogWriter fan-out to byte and String sinks, and the console byte sink.
+ */
+class LogWriterTest {
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConsoleSinkDoesNotKeepOversizedBuffers() throws Exception {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        String large = "x".repeat(100_000);
+        System.setOut(new PrintStream(captured, true, "UTF-8"));
+        try {
+            LogSink.ConsoleSink console = new LogSink.ConsoleSink();
+            console.write(ByteBuffer.wrap(large.getBytes(StandardCharsets.UTF_8)), LogLevel.INFO);
+            console.write(ByteBuffer.wrap("small".getBytes(StandardCharsets.UTF_8)), LogLevel.INFO);
+        } finally {
+            System.setOut(original);
+        }
+        
+        assertEquals(large + System.lineSeparator() + "small" + System.lineSeparator(), 
+                     captured.toString("UTF-8"));
+        Field scratch = LogSink.ConsoleSink.class.getDeclaredField("SCRATCH");
+        scratch.setAccessible(true);
+        byte[] kept = ((ThreadLocal<byte[]>) scratch.get(null)).get();
+        assertTrue(kept.length <= 8192, "kept " + kept.length + " bytes");
+    }
+    
+    @Test
+    void testEntryIsEncodedOnceForAllByteSinks() {
+        RecordingByteSink first = new RecordingByteSink();
+        RecordingStringSink text = new RecordingStringSink();
+        RecordingByteSink second = new RecordingByteSink();
+        RecordingByteSink third = new RecordingByteSink();
+        RivetConfiguration config = new RivetConfiguration()
+            .clearSinks()
+            .setDebugToConsole(false)
+            .addSink(first)
+            .addSink(text)
+            .addSink(second)
+            .addSink(third);
+        LogWriter writer = new LogWriter(config);
+        
+        writer.write(entry("Pedido ñandú 😀"));
+        
+        // Every byte sink gets the same buffer; the first one consuming it does not affect the others
+        assertSame(first.buffers.get(0), second.buffers.get(0));
+        assertSame(first.buffers.get(0), third.buffers.get(0));
+        assertEquals(1, text.entries.size());
+        byte[] expected = text.entries.get(0).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, first.contents.get(0));
+        assertArrayEquals(expected, second.contents.get(0));
+        assertArrayEquals(expected, third.contents.get(0));
+        assertTrue(text.entries.get(0).contains("Pedido ñandú 😀"));
+    }
+    
+    @Test
+    void testBufferIsReusedAcrossEntries() {
+        RecordingByteSink sink = new RecordingByteSink();
+        LogWriter writer = new LogWriter(new RivetConfiguration().clearSinks().setDebugToConsole(false).addSink(sink));
+        
+        writer.write(entry("first entry with a longer message"));
+        writer.write(entry("second"));
+        
+        assertSame(sink.buffers.get(0), sink.buffers.get(1));
+        assertTrue(new String(sink.contents.get(1), StandardCharsets.UTF_8).contains("\"message\":\"second\""));
+    }
+    
+    private static LogEntry entry(String message) {
+        return new LogEntry.Builder()
+            .timestamp(Instant.parse("2024-12-02T10:30:00Z"))
+            .level(LogLevel.INFO)
+            .loggerName("OrderService")
+            .message(message)
+            .context(Map.of("orderId", "A-1"))
+            .threadId(1L)
+            .threadName("main")
+            .build();
+    }
+    
+    private static final class RecordingByteSink implements ByteLogSink {
+        
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        final List<byte[]> contents = new ArrayList<>();
+        
+        @Override
+        public void write(ByteBuffer utf8Entry, LogLevel level) {
+            buffers.add(utf8Entry);
+            byte[] bytes = new byte[utf8Entry.remaining()];
+            utf8Entry.get(bytes);
+            contents.add(bytes);
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "recording-bytes";
+        }
+    }
+    
+    private static final class RecordingStringSink implements LogSink {
+        
+        final List<String> entries = new ArrayList<>();
+        
+        @Override
+        public void write(String logEntry) {
+            entries.add(logEntry);
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        @Override
+        public String getName() {
+            return "recording-text";
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.yasmramos.rivet.logging.core;
 
+import io.github.yasmramos.rivet.logging.api.LogSink;
 import io.github.yasmramos.rivet.logging.api.RivetLogger;
 import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
 import io.github.yasmramos.rivet.logging.config.LogLevel;
@@ -10,7 +11,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +60,33 @@ class RivetLoggerTest {
         assertTrue(logger.isLevelEnabled(LogLevel.ERROR));
     }
     
+    @Test
+    void testHierarchicalLevels() {
+        RivetLogger db = new RivetLogger("com.acme.db", config);
+        RivetLogger pool = new RivetLogger("com.acme.db.Pool", config);
+        RivetLogger dbx = new RivetLogger("com.acme.dbx", config);
+        config.setMinLevel(LogLevel.WARN);
+        config.setLevel("com.acme", LogLevel.ERROR);
+        config.setLevel("com.acme.db", LogLevel.DEBUG);
+        
+        assertTrue(db.isLevelEnabled(LogLevel.DEBUG));
+        assertTrue(pool.isLevelEnabled(LogLevel.DEBUG));
+        assertFalse(pool.isLevelEnabled(LogLevel.TRACE));
+        assertFalse(dbx.isLevelEnabled(LogLevel.WARN));
+        assertEquals(LogLevel.ERROR, dbx.getEffectiveLevel());
+        assertFalse(logger.isLevelEnabled(LogLevel.INFO));
+        assertEquals(LogLevel.DEBUG, config.getLowestLevel());
+        
+        RivetLogger created = new RivetLogger("com.acme.db.Query", config);
+        assertTrue(created.isLevelEnabled(LogLevel.DEBUG));
+        
+        config.clearLevel("com.acme.db");
+        assertFalse(pool.isLevelEnabled(LogLevel.DEBUG));
+        assertTrue(pool.isLevelEnabled(LogLevel.ERROR));
+        assertEquals(LogLevel.WARN, config.getLowestLevel());
+        assertEquals(Map.of("com.acme", LogLevel.ERROR), config.getLevels());
+    }
+    
     @Test
     void testContextOperations() {
         logger.addContext("testKey", "testValue");
@@ -75,6 +105,45 @@ class RivetLoggerTest {
         assertNull(ThreadContext.get().getTag("testTag"));
     }
     
+    @Test
+    void testSharedLoggerUsesLoggingThreadsContext() throws InterruptedException {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        config.clearSinks();
+        config.setPrettyPrint(false);
+        config.addSink(new LogSink() {
+            @Override
+            public void write(String logEntry) {
+                lines.add(logEntry);
+            }
+            
+            @Override
+            public void flush() {
+            }
+            
+            @Override
+            public void close() {
+            }
+            
+            @Override
+            public String getName() {
+                return "capture";
+            }
+        });
+        
+        Thread worker = new Thread(() -> {
+            logger.addContext("requestId", "worker-request");
+            logger.log(LogLevel.INFO, "from worker", new Object[0]);
+            ThreadContext.clearAll();
+        });
+        worker.start();
+        worker.join();
+        
+        // The worker's context stays on the worker thread, not on the thread that created the logger
+        assertNull(ThreadContext.get().get("requestId"));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"requestId\":\"worker-request\""), lines.get(0));
+    }
+    
     @Test
     void testSimpleLogging() {
         // Test basic logging doesn't throw exceptions
@@ -0,0 +1,100 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import io.github.yasmramos.rivet.logging.util.BinaryLogDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BinaryFileSink appending to existing files.
+ */
+class BinaryFileSinkTest {
+    
+    private Path directory;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("rivet-binary");
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Test
+    void testAppendsNewStreamAfterCleanClose() throws IOException {
+        Path file = directory.resolve("app.rbin");
+        writeAndClose(file, "first run");
+        writeAndClose(file, "second run");
+        
+        assertEquals(List.of("first run", "second run"), readMessages(file));
+    }
+    
+    @Test
+    void testCutsOffIncompleteRecordLeftByCrash() throws IOException {
+        Path file = directory.resolve("app.rbin");
+        writeAndClose(file, "before crash");
+        long complete = Files.size(file);
+        // An entry tag and the first bytes of its record, as left by a crash mid-write
+        Files.write(file, new byte[] {2, 3, 0x7F}, StandardOpenOption.APPEND);
+        
+        writeAndClose(file, "after restart");
+        
+        assertEquals(List.of("before crash", "after restart"), readMessages(file));
+        assertTrue(Files.size(file) > complete);
+    }
+    
+    @Test
+    void testRefusesToAppendToForeignFile() throws IOException {
+        Path file = directory.resolve("notes.txt");
+        Files.writeString(file, "not a log");
+        
+        assertThrows(RuntimeException.class, () -> BinaryFileSink.Builder.create(file).build());
+        assertEquals("not a log", Files.readString(file));
+    }
+    
+    private static void writeAndClose(Path file, String message) {
+        BinaryFileSink sink = BinaryFileSink.Builder.create(file)
+            .configuration(new RivetConfiguration().setIncludeHostname(false))
+            .flushIntervalMillis(0)
+            .build();
+        sink.write(new LogEntry.Builder()
+            .timestamp(Instant.now())
+            .level(LogLevel.INFO)
+            .loggerName("OrderService")
+            .message(message)
+            .context(Map.of("attempt", 1L))
+            .threadName("main")
+            .build());
+        sink.close();
+    }
+    
+    private static List<String> readMessages(Path file) throws IOException {
+        List<String> messages = new ArrayList<>();
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(file))) {
+            for (LogEntry entry = decoder.next(); entry != null; entry = decoder.next()) {
+                messages.add(entry.getMessage());
+            }
+        }
+        return messages;
+    }
+}
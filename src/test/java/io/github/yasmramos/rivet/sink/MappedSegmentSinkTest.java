@@ -0,0 +1,151 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MappedSegmentSink writing, segment rollover and crash recovery.
+ */
+class MappedSegmentSinkTest {
+    
+    private Path directory;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("rivet-segments");
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Test
+    void testWritesAndReadsBackEntries() throws IOException {
+        MappedSegmentSink sink = MappedSegmentSink.Builder.create(directory, "app").build();
+        
+        sink.write("{\"message\":\"first\"}");
+        sink.write(utf8("{\"message\":\"café\"}"), LogLevel.INFO);
+        sink.close();
+        
+        assertEquals(List.of("{\"message\":\"first\"}", "{\"message\":\"café\"}"),
+                     SegmentReader.readLines(sink.getCurrentSegment()));
+    }
+    
+    @Test
+    void testRollsToNewSegmentWhenFull() throws IOException {
+        MappedSegmentSink sink = MappedSegmentSink.Builder.create(directory, "app")
+            .segmentSize(128)
+            .build();
+        
+        for (int i = 0; i < 20; i++) {
+            sink.write("entry-" + i);
+        }
+        sink.close();
+        
+        List<Path> segments = SegmentReader.listSegments(directory, "app");
+        assertTrue(segments.size() > 1);
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments) {
+            lines.addAll(SegmentReader.readLines(segment));
+        }
+        assertEquals(20, lines.size());
+        assertEquals("entry-0", lines.get(0));
+        assertEquals("entry-19", lines.get(19));
+    }
+    
+    @Test
+    void testConcurrentWritersLoseNothing() throws Exception {
+        MappedSegmentSink sink = MappedSegmentSink.Builder.create(directory, "app")
+            .segmentSize(4096)
+            .build();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int thread = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    sink.write(thread + ":" + i);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        sink.close();
+        
+        Set<String> lines = new HashSet<>();
+        for (Path segment : SegmentReader.listSegments(directory, "app")) {
+            lines.addAll(SegmentReader.readLines(segment));
+        }
+        assertEquals(2000, lines.size());
+        assertEquals(0, sink.getDroppedCount());
+    }
+    
+    @Test
+    void testEmptyEntryDoesNotHideLaterEntries() throws IOException {
+        MappedSegmentSink sink = MappedSegmentSink.Builder.create(directory, "app").build();
+        
+        sink.write("before");
+        sink.write(utf8(""), LogLevel.INFO);
+        sink.write("after");
+        sink.close();
+        
+        assertEquals(List.of("before", "after"), SegmentReader.readLines(sink.getCurrentSegment()));
+        assertEquals(1, sink.getDroppedCount());
+    }
+    
+    @Test
+    void testReaderStopsAtUnpublishedRecord() throws IOException {
+        MappedSegmentSink sink = MappedSegmentSink.Builder.create(directory, "app").build();
+        sink.write("complete");
+        sink.close();
+        
+        // Simulate a crash mid-write: payload bytes present, length never published
+        try (FileChannel channel = FileChannel.open(sink.getCurrentSegment(), StandardOpenOption.WRITE)) {
+            int next = MappedSegmentSink.HEADER_SIZE + MappedSegmentSink.recordSize("complete".length());
+            channel.write(utf8("partial"), next + 4);
+        }
+        
+        assertEquals(List.of("complete"), SegmentReader.readLines(sink.getCurrentSegment()));
+    }
+    
+    @Test
+    void testNewSinkStartsAfterExistingSegments() throws IOException {
+        MappedSegmentSink first = MappedSegmentSink.Builder.create(directory, "app").build();
+        first.write("before restart");
+        first.close();
+        
+        MappedSegmentSink second = MappedSegmentSink.Builder.create(directory, "app").build();
+        second.write("after restart");
+        second.close();
+        
+        assertNotEquals(first.getCurrentSegment(), second.getCurrentSegment());
+        assertEquals(List.of("before restart"), SegmentReader.readLines(first.getCurrentSegment()));
+        assertEquals(List.of("after restart"), SegmentReader.readLines(second.getCurrentSegment()));
+    }
+    
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.yasmramos.rivet.logging.sink;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RollingFileSink writing, rollover and retention.
+ */
+class RollingFileSinkTest {
+    
+    private Path directory;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("rivet-rolling");
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Test
+    void testWritesLinesOnFlush() throws IOException {
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .flushIntervalMillis(0)
+            .build();
+        
+        sink.write("{\"message\":\"first\"}");
+        sink.write(utf8("{\"message\":\"second\"}"), LogLevel.INFO);
+        sink.flush();
+        
+        assertEquals(List.of("{\"message\":\"first\"}", "{\"message\":\"second\"}"),
+                     Files.readAllLines(sink.getFile()));
+        sink.close();
+    }
+    
+    @Test
+    void testRollsBySizeAndKeepsHistory() throws IOException {
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .maxFileSize(100)
+            .maxHistory(2)
+            .bufferSize(64)
+            .flushIntervalMillis(0)
+            .build();
+        
+        for (int i = 0; i < 20; i++) {
+            // 40 bytes per line including the separator, so each file holds two lines
+            sink.write(utf8(line(i)), LogLevel.INFO);
+        }
+        sink.close();
+        
+        List<Path> rolled = sink.listRolledFiles();
+        assertEquals(2, rolled.size());
+        for (Path file : rolled) {
+            assertTrue(Files.size(file) <= 100, "Rolled file too large: " + Files.size(file));
+        }
+        // The two newest rolled files hold entries 14 to 17, the active file the last two
+        List<String> kept = new ArrayList<>();
+        for (Path file : rolled) {
+            kept.addAll(Files.readAllLines(file));
+        }
+        kept.sort(null);
+        assertEquals(List.of(line(14), line(15), line(16), line(17)), kept);
+        assertEquals(List.of(line(18), line(19)), Files.readAllLines(sink.getFile()));
+    }
+    
+    @Test
+    void testRetentionOrdersByFileNameNotModificationTime() throws IOException {
+        Path oldest = directory.resolve("app-20241201-235959-7.log");
+        Path older = directory.resolve("app-20241202-103000-2.log");
+        Path newer = directory.resolve("app-20241202-103000-10.log");
+        long now = System.currentTimeMillis();
+        for (Path file : List.of(oldest, older, newer)) {
+            Files.write(file, List.of(file.getFileName().toString()));
+        }
+        // Modification times that contradict the names, as after a copy or restore
+        Files.setLastModifiedTime(oldest, FileTime.fromMillis(now));
+        Files.setLastModifiedTime(older, FileTime.fromMillis(now - 60_000));
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(now - 120_000));
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .maxHistory(2)
+            .flushIntervalMillis(0)
+            .build();
+        
+        sink.write("{\"message\":\"current\"}");
+        Path rolled = sink.rollOver();
+        sink.close();
+        
+        assertEquals(Set.of(newer, rolled), Set.copyOf(sink.listRolledFiles()));
+    }
+    
+    @Test
+    void testKeepsWritingAfterFailedRoll() throws IOException {
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .flushIntervalMillis(0)
+            .build();
+        sink.write("{\"message\":\"before\"}");
+        sink.flush();
+        // The rename fails because the active file is gone
+        Files.delete(sink.getFile());
+        
+        assertThrows(IOException.class, sink::rollOver);
+        sink.write("{\"message\":\"after\"}");
+        sink.flush();
+        
+        assertEquals(List.of("{\"message\":\"after\"}"), Files.readAllLines(sink.getFile()));
+        assertTrue(sink.listRolledFiles().isEmpty());
+        sink.close();
+    }
+    
+    @Test
+    void testRolledFileNameMatching() {
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .flushIntervalMillis(0)
+            .build();
+        
+        assertTrue(sink.isRolledFileName("20241202-103000-1.log"));
+        assertTrue(sink.isRolledFileName("20241202-103000-42.log"));
+        assertFalse(sink.isRolledFileName("20241202-103000-.log"));
+        assertTrue(sink.isRolledFileName("20241202-103000-1.log.gz"));
+        assertTrue(sink.isRolledFileName("20241202-103000-1.log.deflate"));
+        assertFalse(sink.isRolledFileName("20241202-103000-1.log.gz.tmp"));
+        assertFalse(sink.isRolledFileName("backup.log"));
+        sink.close();
+    }
+    
+    @Test
+    void testCompressesRolledFilesInBackground() throws IOException {
+        RolledFileCompressor compressor = new RolledFileCompressor(2, Deflater.BEST_SPEED);
+        RollingFileSink sink = RollingFileSink.Builder.create(directory.resolve("app.log"))
+            .compression(CompressionFormat.GZIP)
+            .compressor(compressor)
+            .flushIntervalMillis(0)
+            .build();
+        
+        sink.write("{\"message\":\"rolled\"}");
+        Path rolled = sink.rollOver();
+        sink.close();
+        compressor.close();
+        
+        Path compressed = rolled.resolveSibling(rolled.getFileName() + ".gz");
+        assertFalse(Files.exists(rolled));
+        assertEquals(List.of(compressed), sink.listRolledFiles());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+            assertEquals("{\"message\":\"rolled\"}\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+    
+    private static String line(int number) {
+        return String.format("{\"message\":\"entry number %012d\"}", number);
+    }
+    
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary log format: BinaryFormatter encoding and BinaryLogDecoder round trips.
+ */
+class BinaryFormatterTest {
+    
+    private static final Instant START = Instant.parse("2024-12-02T10:30:00.123456789Z");
+    
+    @Test
+    void testRoundTripPreservesEntries() throws IOException {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("userId", "12345");
+        context.put("attempts", 5);
+        context.put("ratio", 0.25);
+        context.put("precise", 0.1f);
+        context.put("admin", true);
+        context.put("roles", Arrays.asList("read", 2L));
+        context.put("address", Map.of("city", "Madrid"));
+        LogEntry first = entry(START, "User alice logged in", context, Map.of("security", "auth"));
+        LogEntry second = entry(START.plusMillis(3), null, Map.of(), Map.of());
+        
+        BinaryFormatter formatter = new BinaryFormatter(Map.of("application", "MyApp"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, formatter.header());
+        write(out, formatter.encode(first));
+        write(out, formatter.encode(second));
+        
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEntryEquals(first, decoder.next());
+            assertEntryEquals(second, decoder.next());
+            assertNull(decoder.next());
+            assertEquals(Map.of("application", "MyApp"), decoder.getEnvelope());
+        }
+    }
+    
+    @Test
+    void testInternsRepeatedStrings() {
+        BinaryFormatter formatter = new BinaryFormatter(Map.of());
+        formatter.header();
+        LogEntry entry = entry(START, "hello", Map.of("requestId", "r-1"), Map.of("component", "api"));
+        
+        int firstSize = formatter.encode(entry).remaining();
+        int repeatSize = formatter.encode(entry).remaining();
+        
+        assertTrue(repeatSize < firstSize, "Repeated strings should be sent as ids");
+        RivetConfiguration configuration = new RivetConfiguration().setIncludeHostname(false);
+        int jsonSize = new JsonFormatter(configuration).format(entry).length();
+        assertTrue(repeatSize * 3 < jsonSize, "Binary " + repeatSize + " vs JSON " + jsonSize);
+    }
+    
+    @Test
+    void testTruncatedRecordEndsStream() throws IOException {
+        BinaryFormatter formatter = new BinaryFormatter(Map.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, formatter.header());
+        write(out, formatter.encode(entry(START, "complete", Map.of(), Map.of())));
+        int complete = out.size();
+        ByteBuffer partial = formatter.encode(entry(START, "cut off by a crash", Map.of(), Map.of()));
+        out.write(partial.array(), 0, partial.remaining() / 2);
+        
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("complete", decoder.next().getMessage());
+            assertNull(decoder.next());
+            assertEquals(complete, decoder.getCompleteLength());
+        }
+    }
+    
+    @Test
+    void testConcatenatedStreamsStartNewStringTables() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String application : List.of("first", "second")) {
+            BinaryFormatter formatter = new BinaryFormatter(Map.of("application", application));
+            write(out, formatter.header());
+            write(out, formatter.encode(entry(START, application, Map.of("key", 1L), Map.of())));
+        }
+        
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("first", decoder.next().getMessage());
+            assertEquals("first", decoder.getEnvelope().get("application"));
+            assertEquals("second", decoder.next().getMessage());
+            assertEquals("second", decoder.getEnvelope().get("application"));
+        }
+    }
+    
+    @Test
+    void testDeferredMessageIsRenderedByDecoder() throws IOException {
+        LogEntry deferred = new LogEntry.Builder()
+            .timestamp(START)
+            .level(LogLevel.INFO)
+            .loggerName("OrderBook")
+            .messageTemplate("Order {} filled {} at {}", new Object[] {"o-42", 100, 99.5})
+            .threadName("matcher")
+            .build();
+        
+        BinaryFormatter formatter = new BinaryFormatter(Map.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, formatter.header());
+        write(out, formatter.encode(deferred));
+        
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            LogEntry decoded = decoder.next();
+            assertTrue(decoded.isMessageDeferred());
+            assertEquals("Order {} filled {} at {}", decoded.getMessageTemplate());
+            assertEquals("Order o-42 filled 100 at 99.5", decoded.getMessage());
+        }
+    }
+    
+    private static LogEntry entry(Instant timestamp, String message, Map<String, Object> context,
+                                  Map<String, String> tags) {
+        return new LogEntry.Builder()
+            .timestamp(timestamp)
+            .level(LogLevel.INFO)
+            .loggerName("UserService")
+            .message(message)
+            .context(context)
+            .tags(tags)
+            .threadId(1L)
+            .threadName("main")
+            .build();
+    }
+    
+    private static void assertEntryEquals(LogEntry expected, LogEntry actual) {
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getLoggerName(), actual.getLoggerName());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(expected.getThreadId(), actual.getThreadId());
+        assertEquals(expected.getThreadName(), actual.getThreadName());
+        assertEquals(expected.getTags(), actual.getTags());
+        assertEquals(expected.getContext().keySet(), actual.getContext().keySet());
+        // Values decode to their JSON-equivalent types, e.g. integers as longs
+        JsonWriter expectedJson = new JsonWriter(new StringBuilder(), 0);
+        JsonWriter actualJson = new JsonWriter(new StringBuilder(), 0);
+        for (String key : expected.getContext().keySet()) {
+            expectedJson.value(expected.getContext().get(key));
+            actualJson.value(actual.getContext().get(key));
+        }
+        assertEquals(expectedJson.buffer().toString(), actualJson.buffer().toString());
+    }
+    
+    private static void write(ByteArrayOutputStream out, ByteBuffer bytes) {
+        out.write(bytes.array(), bytes.position(), bytes.remaining());
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for carrying ThreadContext across executors and CompletableFuture stages.
+ */
+class ContextPropagationTest {
+    
+    @AfterEach
+    void tearDown() {
+        ThreadContext.clearAll();
+    }
+    
+    @Test
+    void testExecutorServiceRunsTasksWithSubmittersContext() throws Exception {
+        ExecutorService pool = ContextPropagation.wrap(Executors.newSingleThreadExecutor());
+        try {
+            ThreadContext.get().put("requestId", "req-1");
+            Future<Object> first = pool.submit(() -> ThreadContext.get().get("requestId"));
+            ThreadContext.get().put("requestId", "req-2");
+            Future<Object> second = pool.submit(() -> ThreadContext.get().get("requestId"));
+            ThreadContext.get().remove("requestId");
+            List<Future<Object>> none = pool.invokeAll(List.of(() -> ThreadContext.get().get("requestId")));
+            
+            assertEquals("req-1", first.get());
+            assertEquals("req-2", second.get());
+            assertNull(none.get(0).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void testWorkerContextIsRestoredAfterTask() {
+        ThreadContext.get().putTag("component", "worker");
+        ThreadContext.Snapshot own = ThreadContext.snapshot();
+        ThreadContext.Snapshot submitted = ThreadContext.Snapshot.EMPTY;
+        
+        ThreadContext.Snapshot previous = ThreadContext.restore(submitted);
+        ThreadContext.get().put("transient", "value");
+        ThreadContext.restore(previous);
+        
+        assertSame(own, ThreadContext.snapshot());
+        assertEquals("worker", ThreadContext.get().getTag("component"));
+        assertNull(ThreadContext.get().get("transient"));
+    }
+    
+    @Test
+    void testCompletableFutureStagesSeeContext() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ThreadContext.get().put("userId", "alice");
+            CompletableFuture<String> result = ContextPropagation
+                .supplyAsync(() -> (String) ThreadContext.get().get("userId"), pool)
+                .thenApplyAsync(ContextPropagation.wrapFunction(
+                    user -> user + "/" + ThreadContext.get().get("userId")), pool);
+            
+            assertEquals("alice/alice", result.get());
+            // The pool thread keeps no context once the stages are done
+            assertNull(pool.submit(() -> ThreadContext.get().get("userId")).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void testScopeRestoresContextOnClose() {
+        ThreadContext.get().put("requestId", "req-1");
+        ThreadContext.Snapshot outer = ThreadContext.snapshot();
+        
+        try (ContextScope scope = ThreadContext.openScope()) {
+            scope.put("step", "parse").putTag("phase", "input");
+            ThreadContext.get().put("requestId", "req-2");
+            assertEquals("parse", ThreadContext.get().get("step"));
+            assertEquals("req-2", ThreadContext.get().get("requestId"));
+        }
+        
+        assertSame(outer, ThreadContext.snapshot());
+        assertNull(ThreadContext.get().getTag("phase"));
+    }
+}
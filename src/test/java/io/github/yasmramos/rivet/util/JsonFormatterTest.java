@@ -0,0 +1,125 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JsonFormatter envelope cache and for its output compared with org.json.
+ */
+class JsonFormatterTest {
+    
+    private static LogEntry entry(String message) {
+        return new LogEntry.Builder()
+            .timestamp(Instant.parse("2024-12-02T10:30:00Z"))
+            .level(LogLevel.INFO)
+            .loggerName("OrderService")
+            .message(message)
+            .threadId(1L)
+            .threadName("main")
+            .build();
+    }
+    
+    @Test
+    void testHostnameIsLookedUpOnce() throws Exception {
+        Field cached = JsonFormatter.class.getDeclaredField("cachedHostname");
+        cached.setAccessible(true);
+        String lookedUp = (String) cached.get(null);
+        try {
+            // Any formatter, even for a new configuration, uses the cached name instead of a new lookup
+            cached.set(null, "cached-host");
+            JsonFormatter formatter = new JsonFormatter(new RivetConfiguration().setDebugToConsole(false));
+            
+            assertEquals("cached-host", new JSONObject(formatter.format(entry("first"))).getString("hostname"));
+            assertEquals("cached-host", new JSONObject(formatter.format(entry("second"))).getString("hostname"));
+        } finally {
+            cached.set(null, lookedUp);
+        }
+    }
+    
+    @Test
+    void testEnvelopeFollowsConfigurationChanges() {
+        RivetConfiguration configuration = new RivetConfiguration().setDebugToConsole(false).setIncludeHostname(false);
+        JsonFormatter formatter = new JsonFormatter(configuration);
+        JSONObject before = new JSONObject(formatter.format(entry("before")));
+        
+        configuration.setApplicationName("billing").setEnvironment("prod").setIncludeHostname(true);
+        JSONObject after = new JSONObject(formatter.format(entry("after")));
+        configuration.setEnvironment("staging").setIncludeHostname(false);
+        JSONObject changedAgain = new JSONObject(formatter.format(entry("again")));
+        
+        assertFalse(before.has("application"));
+        assertFalse(before.has("hostname"));
+        assertEquals("billing", after.getString("application"));
+        assertEquals("prod", after.getString("environment"));
+        assertTrue(after.has("hostname"));
+        assertEquals("staging", changedAgain.getString("environment"));
+        assertFalse(changedAgain.has("hostname"));
+    }
+    
+    @Test
+    void testConcurrentSettersEachChangeTheVersion() throws InterruptedException {
+        RivetConfiguration configuration = new RivetConfiguration().setDebugToConsole(false);
+        int start = configuration.getVersion();
+        Thread[] setters = new Thread[4];
+        for (int i = 0; i < setters.length; i++) {
+            setters[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    configuration.setPrettyPrint(false);
+                }
+            });
+            setters[i].start();
+        }
+        for (Thread setter : setters) {
+            setter.join();
+        }
+        
+        assertEquals(start + 40_000, configuration.getVersion());
+    }
+    
+    @Test
+    void testContextMatchesOrgJson() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("text", "quote\" </script>  ");
+        context.put("int", 5);
+        context.put("long", 12345678901L);
+        context.put("double", 0.25);
+        context.put("float", 0.1f);
+        context.put("admin", true);
+        context.put("level", LogLevel.WARN);
+        context.put("uri", URI.create("https://example.com/a"));
+        context.put("list", Arrays.asList("read", 2L, null));
+        context.put("array", new int[] {1, 2});
+        context.put("nested", Map.of("city", "Madrid"));
+        context.put("order", new JsonWriterTest.Order("A-1", 3));
+        context.put("orders", List.of(new JsonWriterTest.Order("B-2", 1)));
+        LogEntry entry = new LogEntry.Builder()
+            .timestamp(Instant.parse("2024-12-02T10:30:00Z"))
+            .level(LogLevel.INFO)
+            .loggerName("OrderService")
+            .message("Order placed")
+            .context(context)
+            .threadId(1L)
+            .threadName("main")
+            .build();
+        JsonFormatter formatter = new JsonFormatter(new RivetConfiguration().setDebugToConsole(false));
+        
+        JSONObject streamed = new JSONObject(formatter.format(entry)).getJSONObject("context");
+        JSONObject expected = new JSONObject(formatter.formatToJson(entry).toString()).getJSONObject("context");
+        
+        assertTrue(expected.similar(streamed), "expected " + expected + " but was " + streamed);
+        assertEquals(expected.keySet(), streamed.keySet());
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for JsonWriter output, which must match org.json's compact format.
+ */
+class JsonWriterTest {
+    
+    @Test
+    void testCompactObject() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("id", 7L);
+        nested.put("skipped", null);
+        nested.put("items", Arrays.asList(1, "two", true));
+        
+        String json = new JsonWriter(new StringBuilder(), 0)
+            .beginObject()
+            .name("text").value("plain")
+            .name("ratio").value(2.50)
+            .name("whole").value(3.0)
+            .name("nested").value(nested)
+            .name("empty").beginObject().endObject()
+            .name("list").beginArray().value("a").value("b").beginObject().endObject().endArray()
+            .endObject()
+            .buffer().toString();
+        
+        assertEquals("{\"text\":\"plain\",\"ratio\":2.5,\"whole\":3,"
+            + "\"nested\":{\"id\":7,\"items\":[1,\"two\",true]},\"empty\":{},\"list\":[\"a\",\"b\",{}]}", json);
+    }
+    
+    @Test
+    void testStringEscapingMatchesOrgJson() {
+        JsonWriter writer = new JsonWriter(new StringBuilder(), 0);
+        writer.writeString("quote\" slash\\ tab\t nl\n </script> a/b \u0001 \u0085 \u2028 ñ");
+        
+        assertEquals("\"quote\\\" slash\\\\ tab\\t nl\\n <\\/script> a/b \\u0001 \\u0085 \\u2028 ñ\"",
+                     writer.buffer().toString());
+    }
+    
+    @Test
+    void testPrettyPrint() {
+        String json = new JsonWriter(new StringBuilder(), 2)
+            .beginObject()
+            .name("a").value(1)
+            .name("b").beginObject().name("c").value("d").endObject()
+            .endObject()
+            .buffer().toString();
+        
+        assertEquals("{\n  \"a\": 1,\n  \"b\": {\n    \"c\": \"d\"\n  }\n}", json);
+    }
+    
+    @Test
+    void testResetReusesBuffer() {
+        JsonWriter writer = new JsonWriter(new StringBuilder(), 0);
+        writer.beginObject().name("first").value(true).endObject();
+        writer.reset().beginObject().name("second").value(false).endObject();
+        
+        assertEquals("{\"second\":false}", writer.buffer().toString());
+    }
+    
+    @Test
+    void testBeansAreWrittenAsTheirGetters() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("order", new Order("A-1", 3));
+        context.put("uri", java.net.URI.create("https://example.com/a"));
+        
+        String json = new JsonWriter(new StringBuilder(), 0).value(context).buffer().toString();
+        
+        assertEquals("{\"order\":{\"URL\":\"/orders/A-1\",\"id\":\"A-1\",\"paid\":true,\"quantity\":3},"
+            + "\"uri\":\"https://example.com/a\"}", json);
+    }
+    
+    @Test
+    void testSelfReferencingBeanIsCut() {
+        Node node = new Node();
+        node.next = node;
+        
+        String json = new JsonWriter(new StringBuilder(), 0).value(node).buffer().toString();
+        
+        assertEquals("{\"next\":null}", json);
+    }
+    
+    public static final class Order {
+        
+        private final String id;
+        private final int quantity;
+        
+        Order(String id, int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public int getQuantity() {
+            return quantity;
+        }
+        
+        public boolean isPaid() {
+            return true;
+        }
+        
+        public String getURL() {
+            return "/orders/" + id;
+        }
+        
+        public String getCoupon() {
+            return null;
+        }
+        
+        public String getFailing() {
+            throw new IllegalStateException("not loaded");
+        }
+        
+        public static String getVersion() {
+            return "1";
+        }
+    }
+    
+    public static final class Node {
+        
+        Object next;
+        
+        public Object getNext() {
+            return next;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MessageTemplate parsing and rendering.
+ */
+class MessageTemplateTest {
+    
+    @Test
+    void testPositionalPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("{1} before {0}, {1} again");
+        
+        assertEquals("b before a, b again", template.format(new Object[]{"a", "b"}));
+        assertEquals(2, template.getArgumentCount());
+        assertEquals(3, template.getPlaceholderCount());
+    }
+    
+    @Test
+    void testNamedPlaceholdersBindInOrderOfFirstAppearance() {
+        MessageTemplate template = MessageTemplate.compile("User {user} logged in from {location} as {user}");
+        
+        assertEquals("User alice logged in from Madrid as alice", 
+                     template.format(new Object[]{"alice", "Madrid"}));
+    }
+    
+    @Test
+    void testAnonymousPlaceholders() {
+        MessageTemplate template = MessageTemplate.compile("Took {} ms for {} rows");
+        
+        assertEquals("Took 15 ms for null rows", template.format(new Object[]{15, null}));
+    }
+    
+    @Test
+    void testMissingArgumentsAndLiteralBraces() {
+        MessageTemplate template = MessageTemplate.compile("{0} and {1} in {\"json\": true} {");
+        
+        assertEquals("x and {1} in {\"json\": true} {", template.format(new Object[]{"x"}));
+        assertSame(template.getSource(), template.format(new Object[0]));
+    }
+    
+    @Test
+    void testCacheReturnsCompiledTemplateForSameString() {
+        String message = "Cached {0}";
+        
+        assertSame(MessageTemplate.of(message), MessageTemplate.of(message));
+    }
+    
+    @Test
+    void testArraysAreRenderedByContent() {
+        MessageTemplate template = MessageTemplate.compile("{} {} {}");
+        
+        assertEquals("[1, 2] [a, [b]] [true]", 
+                     template.format(new Object[]{new long[]{1, 2}, new Object[]{"a", new String[]{"b"}}, new boolean[]{true}}));
+    }
+    
+    @Test
+    void testSlf4jFormatsRenderLikeMessageFormatter() {
+        String[] formats = {
+            "", "plain", "{}", "a {} b {} c", "Route {id} matched {}", "{0} and {}", 
+            "Set \\{} to {}", "Path C:\\\\{} is {}", "\\{}", "{{}}", "{} {} {} {}", "end {", "\\{}{}\\\\{}"
+        };
+        Object[][] argumentSets = {
+            {}, {"x"}, {"x", "y"}, {"x", "y", "z"}, {null, new int[] {1, 2}}
+        };
+        for (String format : formats) {
+            MessageTemplate template = MessageTemplate.compileSlf4j(format);
+            for (Object[] arguments : argumentSets) {
+                assertEquals(MessageFormatter.basicArrayFormat(format, arguments), template.format(arguments), 
+                             format + " with " + arguments.length + " arguments");
+            }
+        }
+    }
+    
+    @Test
+    void testSlf4jFormatsCountOnlyRealPlaceholders() {
+        assertEquals(1, MessageTemplate.ofSlf4j("Route {id} failed for {}").getArgumentCount());
+        assertEquals(1, MessageTemplate.ofSlf4j("Set \\{} to {}").getArgumentCount());
+        assertEquals(2, MessageTemplate.ofSlf4j("Path \\\\{} is {}").getArgumentCount());
+        assertEquals(2, MessageTemplate.ofSlf4j("Path \\\\{} is {}").getPlaceholderCount());
+    }
+    
+    @Test
+    void testRivetCompatibility() {
+        assertTrue(MessageTemplate.ofSlf4j("a {} b {}").isRivetCompatible());
+        assertTrue(MessageTemplate.ofSlf4j("no placeholders").isRivetCompatible());
+        assertFalse(MessageTemplate.ofSlf4j("Route {id} matched {}").isRivetCompatible());
+        assertFalse(MessageTemplate.ofSlf4j("{0}").isRivetCompatible());
+        assertFalse(MessageTemplate.ofSlf4j("Set \\{} to {}").isRivetCompatible());
+        assertTrue(MessageTemplate.compile("Route {id}").isRivetCompatible());
+    }
+}
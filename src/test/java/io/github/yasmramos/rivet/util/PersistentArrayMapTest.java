@@ -0,0 +1,63 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PersistentArrayMap updates and ThreadContext snapshots.
+ */
+class PersistentArrayMapTest {
+    
+    @Test
+    void testUpdatesLeaveSnapshotsUnchanged() {
+        PersistentArrayMap<Object> empty = PersistentArrayMap.empty();
+        PersistentArrayMap<Object> one = empty.with("userId", "12345");
+        PersistentArrayMap<Object> two = one.with("requestId", "req-1");
+        PersistentArrayMap<Object> replaced = two.with("userId", "67890");
+        PersistentArrayMap<Object> removed = replaced.without("userId");
+        
+        assertTrue(empty.isEmpty());
+        assertEquals(Map.of("userId", "12345"), one);
+        assertEquals(Map.of("userId", "12345", "requestId", "req-1"), two);
+        assertEquals(List.of("userId", "requestId"), List.copyOf(replaced.keySet()));
+        assertEquals("67890", replaced.get("userId"));
+        assertEquals(Map.of("requestId", "req-1"), removed);
+        assertSame(removed, removed.without("missing"));
+        assertEquals(removed, removed.with("userId", null));
+        assertThrows(UnsupportedOperationException.class, () -> two.put("x", "y"));
+    }
+    
+    @Test
+    void testCopyOfKeepsOrderAndSkipsNulls() {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("b", 2);
+        source.put("skipped", null);
+        source.put("a", 1);
+        
+        PersistentArrayMap<Object> copy = PersistentArrayMap.copyOf(source);
+        
+        assertEquals(List.of("b", "a"), List.copyOf(copy.keySet()));
+        assertSame(copy, PersistentArrayMap.copyOf(copy));
+    }
+    
+    @Test
+    void testThreadContextSnapshotIsNotAffectedByLaterPuts() {
+        ThreadContext context = ThreadContext.get();
+        try {
+            context.put("userId", "12345");
+            Map<String, Object> snapshot = context.getAll();
+            context.put("userId", "67890");
+            context.put("sessionId", "sess-1");
+            
+            assertEquals(Map.of("userId", "12345"), snapshot);
+            assertSame(context.getAll(), context.getAll());
+        } finally {
+            ThreadContext.clearAll();
+        }
+    }
+}
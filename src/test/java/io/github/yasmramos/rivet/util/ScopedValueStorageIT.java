@@ -0,0 +1,104 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests the Java 21 context storage on virtual threads.
+ * 
+ * Runs from the packaged multi-release jar in the java21 profile's integration tests, since
+ * the versioned classes are not on the unit tests' classpath.
+ */
+class ScopedValueStorageIT {
+    
+    @Test
+    void testVirtualThreadsUseScopedValues() throws Exception {
+        assertEquals("scoped-value", onVirtualThread(ThreadContext::getStorageName));
+    }
+    
+    @Test
+    void testOwnBindingTakesPrecedenceOverThreadLocal() throws Exception {
+        onVirtualThread(() -> {
+            ThreadContext.get().put("a", "1");
+            
+            ThreadContext.run(ThreadContext.Snapshot.EMPTY, () -> {
+                assertNull(ThreadContext.get().get("a"));
+                ThreadContext.get().put("b", "2");
+                assertEquals("2", ThreadContext.get().get("b"));
+                ThreadContext.get().clear();
+                assertTrue(ThreadContext.get().isContextEmpty());
+            });
+            
+            assertEquals("1", ThreadContext.get().get("a"));
+            assertNull(ThreadContext.get().get("b"));
+            ThreadContext.clearAll();
+            assertTrue(ThreadContext.get().isContextEmpty());
+            return null;
+        });
+    }
+    
+    @Test
+    void testNestedBindingsRestoreTheOuterSnapshot() throws Exception {
+        onVirtualThread(() -> {
+            ThreadContext.get().put("requestId", "outer");
+            ThreadContext.Snapshot outer = ThreadContext.snapshot();
+            ThreadContext.get().clear();
+            
+            ThreadContext.run(outer, () -> {
+                ThreadContext.get().put("step", "1");
+                ThreadContext.Snapshot inner = ThreadContext.snapshot();
+                Object nested = callUnchecked(() -> ThreadContext.call(ThreadContext.Snapshot.EMPTY, 
+                                                                        () -> ThreadContext.get().get("requestId")));
+                assertNull(nested);
+                assertSame(inner, ThreadContext.snapshot());
+            });
+            
+            assertTrue(ThreadContext.get().isContextEmpty());
+            return null;
+        });
+    }
+    
+    @Test
+    void testPlatformThreadsKeepThreadLocals() {
+        ThreadContext.get().put("a", "1");
+        ThreadContext.run(ThreadContext.Snapshot.EMPTY, () -> assertNull(ThreadContext.get().get("a")));
+        
+        assertEquals("1", ThreadContext.get().get("a"));
+        ThreadContext.clearAll();
+    }
+    
+    private static <V> V onVirtualThread(Callable<V> task) throws Exception {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            assumeTrue(false, "Virtual threads need Java 21");
+            return null;
+        }
+        try {
+            return executor.submit(task).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (Exception) e.getCause();
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private static <V> V callUnchecked(Callable<V> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import io.github.yasmramos.rivet.logging.config.LogLevel;
+import io.github.yasmramos.rivet.logging.config.RivetConfiguration;
+import io.github.yasmramos.rivet.logging.core.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for structured exception output in JSON and binary logs.
+ */
+class ThrowableRendererTest {
+    
+    @Test
+    void testWritesClassMessageFramesCauseAndSuppressed() {
+        IllegalStateException failure = new IllegalStateException("boom", new java.io.IOException("disk"));
+        failure.addSuppressed(new IllegalArgumentException());
+        RivetConfiguration configuration = new RivetConfiguration().setIncludeHostname(false);
+        
+        String json = new JsonFormatter(configuration).format(entry(failure));
+        
+        String frame = failure.getStackTrace()[0].toString();
+        assertTrue(json.contains("\"exception\":{\"class\":\"java.lang.IllegalStateException\","
+            + "\"message\":\"boom\",\"frames\":[\"" + frame + "\","), json);
+        assertTrue(json.contains("\"cause\":{\"class\":\"java.io.IOException\",\"message\":\"disk\""), json);
+        assertTrue(json.contains("\"suppressed\":[{\"class\":\"java.lang.IllegalArgumentException\",\"frames\""), json);
+        
+        // The cached compact frames and the pretty-printed ones describe the same exception
+        String pretty = new JsonFormatter(configuration.setPrettyPrint(true)).format(entry(failure));
+        assertEquals(json.replaceAll("\\s+", ""), pretty.replaceAll("\\s+", ""));
+    }
+    
+    @Test
+    void testRepeatedStackReusesRenderedFrames() {
+        String[] first = null;
+        for (int i = 0; i < 2; i++) {
+            String[] frames = ThrowableRenderer.frames(new RuntimeException("attempt " + i));
+            if (first == null) {
+                first = frames;
+            } else {
+                assertSame(first, frames);
+            }
+        }
+        assertNotSame(first, ThrowableRenderer.frames(new RuntimeException("elsewhere")));
+    }
+    
+    @Test
+    void testCircularCauseIsRenderedOnce() {
+        Exception outer = new Exception("outer");
+        Exception inner = new Exception("inner", outer);
+        outer.initCause(inner);
+        
+        Map<String, Object> rendered = ThrowableRenderer.toMap(outer);
+        
+        Map<?, ?> cause = (Map<?, ?>) rendered.get("cause");
+        assertEquals("inner", cause.get("message"));
+        assertFalse(cause.containsKey("cause"));
+    }
+    
+    @Test
+    void testBinaryRoundTripKeepsExceptionTree() throws IOException {
+        IllegalStateException failure = new IllegalStateException("boom", new java.io.IOException("disk"));
+        failure.addSuppressed(new IllegalArgumentException());
+        BinaryFormatter formatter = new BinaryFormatter(Map.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, formatter.header());
+        write(out, formatter.encode(entry(failure)));
+        int firstSize = out.size();
+        write(out, formatter.encode(entry(failure)));
+        
+        try (BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            Throwable decoded = decoder.next().getThrowable();
+            assertEquals(ThrowableRenderer.toMap(failure), ThrowableRenderer.toMap(decoded));
+            assertEquals("java.lang.IllegalStateException: boom", decoded.toString());
+            assertNotNull(decoder.next().getThrowable());
+        }
+        // Frames are interned, so the repeated exception is much smaller than the first
+        assertTrue(out.size() - firstSize < firstSize / 4, (out.size() - firstSize) + " vs " + firstSize);
+    }
+    
+    private static LogEntry entry(Throwable throwable) {
+        return new LogEntry.Builder()
+            .timestamp(Instant.parse("2024-12-02T10:30:00Z"))
+            .level(LogLevel.ERROR)
+            .loggerName("PaymentService")
+            .message("failed")
+            .threadId(1L)
+            .threadName("main")
+            .throwable(throwable)
+            .build();
+    }
+    
+    private static void write(ByteArrayOutputStream out, ByteBuffer bytes) {
+        out.write(bytes.array(), bytes.position(), bytes.remaining());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.yasmramos.rivet.logging.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that Utf8Buffer encodes exactly like {@code String.getBytes(UTF_8)}.
+ */
+class Utf8BufferTest {
+    
+    @Test
+    void testMatchesStringGetBytes() {
+        String[] samples = {
+            "",
+            "plain ascii {\"a\":1}",
+            "ñandú café ß",
+            "€ 中文 日本語   �",
+            "emoji 😀 and 𝄞",
+            "😀",
+            "lone high \uD83D end",
+            "lone low \uDE00 end",
+            "reversed \uDE00\uD83D pair",
+            "\uD83D",
+            "trailing high \uD83D",
+            "\uD83D😀"
+        };
+        Utf8Buffer buffer = new Utf8Buffer(16);
+        for (String sample : samples) {
+            assertEncodedAs(sample, buffer.encode(sample));
+            assertEquals(sample.getBytes(StandardCharsets.UTF_8).length, buffer.length());
+        }
+    }
+    
+    @Test
+    void testGrowsPastInitialCapacity() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("a ñ € 😀 ");
+        }
+        Utf8Buffer buffer = new Utf8Buffer(16);
+        
+        // Growth in the ASCII prefix, then in the multibyte loop
+        assertEncodedAs("x".repeat(100) + text, buffer.encode("x".repeat(100) + text));
+        assertTrue(buffer.capacity() >= buffer.length());
+        
+        // A shorter entry reuses the grown array and only exposes its own bytes
+        int capacity = buffer.capacity();
+        assertEncodedAs("€", buffer.encode("€"));
+        assertEquals(capacity, buffer.capacity());
+    }
+    
+    @Test
+    void testViewIsResetForEachReader() {
+        Utf8Buffer buffer = new Utf8Buffer(16);
+        ByteBuffer first = buffer.encode("ñandú");
+        first.get(new byte[first.remaining()]);
+        
+        ByteBuffer second = buffer.view();
+        
+        assertTrue(second.isReadOnly());
+        assertEncodedAs("ñandú", second);
+    }
+    
+    private static void assertEncodedAs(String expected, ByteBuffer encoded) {
+        byte[] actual = new byte[encoded.remaining()];
+        encoded.get(actual);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), actual);
+    }
+}